@@ -0,0 +1,116 @@
+package ma.tna.microservice3.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ma.tna.microservice3.dto.CategorieResponseDTO;
+import ma.tna.microservice3.service.CategorieCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Recherche de catégories par nom : index de trigrammes en mémoire (chemin H2/dev de CategorieRecherche)
+ * comparé au parcours lower(nom) LIKE '%x%' de l'ancien findByNomContainingIgnoreCase
+ * Le chemin PostgreSQL (index GIN pg_trgm) n'est pas mesuré ici
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategorieRechercheBenchmark {
+
+    /** Mêmes valeurs par défaut que categories.search.max-results et categories.search.similarity-threshold */
+    private static final int LIMITE = 50;
+    private static final double SEUIL = 0.3;
+
+    private static final String[] FAMILLES = {
+            "Électroménager", "Équipements électroniques", "Produits chimiques", "Matériaux de construction",
+            "Surgelés", "Fruits et légumes", "Produits pharmaceutiques", "Meubles et décoration",
+            "Pièces automobiles", "Textiles et habillement", "Boissons", "Céréales et farines"
+    };
+    private static final String[] VARIANTES = {
+            "", "en vrac", "palettisés", "export", "réfrigérés", "haute valeur", "longue distance", "conteneurisés"
+    };
+
+    /** Catalogue par défaut (12 catégories), catalogue d'exploitation, catalogue très détaillé */
+    @Param({"12", "200", "2000"})
+    public int taille;
+
+    private CategorieCatalog catalogue;
+    private List<CategorieResponseDTO> categories;
+    private String motCle;
+    private String prefixe;
+
+    @Setup
+    public void setup() {
+        LocalDateTime date = LocalDateTime.of(2026, 1, 15, 10, 30);
+        categories = IntStream.range(0, taille)
+                .mapToObj(i -> new CategorieResponseDTO(
+                        "cat-" + i, nom(i), null, 500.0, false, false, "ambiante", null, date, date))
+                .toList();
+        // Vues sérialisées construites avec le catalogue : même configuration que l'ObjectMapper de Spring Boot
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        catalogue = CategorieCatalog.of(categories, objectMapper);
+        motCle = "electro";
+        prefixe = "ele";
+    }
+
+    /** FAMILLES, puis FAMILLES × VARIANTES, puis numérotées au-delà */
+    private static String nom(int i) {
+        String nom = FAMILLES[i % FAMILLES.length];
+        int variante = (i / FAMILLES.length) % VARIANTES.length;
+        int serie = i / (FAMILLES.length * VARIANTES.length);
+        if (!VARIANTES[variante].isEmpty()) {
+            nom += " " + VARIANTES[variante];
+        }
+        return serie == 0 ? nom : nom + " " + serie;
+    }
+
+    /** Index de trigrammes : contient ou similaire, insensible aux accents, trié par similarité */
+    @Benchmark
+    public List<CategorieResponseDTO> rechercher() {
+        return catalogue.rechercher(motCle, SEUIL, LIMITE);
+    }
+
+    /** Préfixe du nom ou d'un de ses mots */
+    @Benchmark
+    public List<CategorieResponseDTO> autocompleter() {
+        return catalogue.autocompleter(prefixe, 10);
+    }
+
+    /**
+     * Ancien chemin sans la base : lower(nom) LIKE '%electro%' sur chaque ligne (parcours complet,
+     * sensible aux accents : "Électroménager" n'est pas trouvé)
+     */
+    @Benchmark
+    public List<CategorieResponseDTO> scanContains() {
+        String motif = motCle.toLowerCase(Locale.ROOT);
+        List<CategorieResponseDTO> resultats = new ArrayList<>();
+        for (CategorieResponseDTO categorie : categories) {
+            if (categorie.nom().toLowerCase(Locale.ROOT).contains(motif)) {
+                resultats.add(categorie);
+            }
+        }
+        return resultats;
+    }
+}
@@ -0,0 +1,74 @@
+package ma.tna.microservice3.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ma.tna.microservice3.dto.CategorieResponseDTO;
+import ma.tna.microservice3.mapper.CategorieMapper;
+import ma.tna.microservice3.model.Categorie;
+import ma.tna.microservice3.service.GrilleTarifaire;
+import ma.tna.microservice3.service.MoteurTarifaire;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Devis calculés par la grille tarifaire locale (repli et mode local), en devis par seconde
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DevisBenchmark {
+
+    private MoteurTarifaire moteur;
+    private CategorieResponseDTO categorie;
+    private CategorieResponseDTO categorieFroidFragile;
+    private double volume;
+    private double poids;
+    private double distanceKm;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = DevisBenchmark.class.getResourceAsStream("/tarifs/grille-tarifaire.json")) {
+            moteur = new MoteurTarifaire(new ObjectMapper().readValue(in, GrilleTarifaire.class));
+        }
+        CategorieMapper categorieMapper = new CategorieMapper();
+        categorie = categorieMapper.toResponseDTO(JeuDeDonnees.categorie());
+        Categorie pharma = JeuDeDonnees.categorie();
+        pharma.setFragile(true);
+        pharma.setTemperatureRequise("refrigere");
+        pharma.setDensiteMoyenne(300.0);
+        categorieFroidFragile = categorieMapper.toResponseDTO(pharma);
+        volume = 25.5;
+        poids = 500.0;
+        distanceKm = 87.0;
+    }
+
+    @Benchmark
+    public double sansCategorie() {
+        return moteur.evaluer(volume, poids, distanceKm, null);
+    }
+
+    @Benchmark
+    public double avecCategorie() {
+        return moteur.evaluer(volume, poids, distanceKm, categorie);
+    }
+
+    /** Poids et distance inconnus : poids estimé par la densité, majoration et chaîne du froid */
+    @Benchmark
+    public double poidsEstimeFroidFragile() {
+        return moteur.evaluer(volume, Double.NaN, Double.NaN, categorieFroidFragile);
+    }
+}
@@ -0,0 +1,111 @@
+package ma.tna.microservice3.jmh;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import ma.tna.microservice3.model.Categorie;
+import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.model.StatutDevis;
+import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.repository.projection.DemandeView;
+import ma.tna.microservice3.util.JwtUtil;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Données communes aux benchmarks : entités, projections et tokens représentatifs d'une requête réelle
+ */
+final class JeuDeDonnees {
+
+    /** Même secret que application.properties (jwt.secret) */
+    static final String SECRET = "transport_marchandises_api2025vs2026";
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2026, 1, 15, 10, 30);
+
+    private JeuDeDonnees() {
+    }
+
+    static Categorie categorie() {
+        return Categorie.builder()
+                .idCategorie("550e8400-e29b-41d4-a716-446655440000")
+                .nom("Matériaux de construction")
+                .description("Ciment, briques, fer à béton et autres matériaux de chantier")
+                .densiteMoyenne(1800.0)
+                .fragile(false)
+                .dangereux(false)
+                .temperatureRequise("ambiante")
+                .restrictions("Bâchage obligatoire")
+                .dateCreation(DATE)
+                .dateModification(DATE)
+                .build();
+    }
+
+    static Demande demande(long id) {
+        return Demande.builder()
+                .id(id)
+                .clientId(42L)
+                .volume(25.5)
+                .poids(500.0)
+                .natureMarchandise("Matériaux de construction")
+                .dateDepart(DATE.plusDays(id % 30))
+                .villeDepart("Casablanca")
+                .villeDestination("Rabat")
+                .statutValidation(StatutValidation.EN_ATTENTE_CLIENT)
+                .devisEstime(new BigDecimal("1500.00"))
+                .statutDevis(StatutDevis.CALCULE)
+                .itineraireAssocieId("550e8400-e29b-41d4-a716-446655440001")
+                .missionId(3L)
+                .categorie(categorie())
+                .dateCreation(DATE)
+                .dateModification(DATE)
+                .version(1L)
+                .build();
+    }
+
+    static DemandeView demandeView(long id) {
+        Categorie categorie = categorie();
+        return new DemandeView(
+                id, 42L, 25.5, 500.0, "Matériaux de construction", DATE.plusDays(id % 30),
+                "Casablanca", "Rabat", StatutValidation.EN_ATTENTE_CLIENT, new BigDecimal("1500.00"),
+                StatutDevis.CALCULE, "550e8400-e29b-41d4-a716-446655440001", 3L,
+                categorie.getIdCategorie(), categorie.getNom(), categorie.getDescription(),
+                categorie.getDensiteMoyenne(), categorie.getFragile(), categorie.getDangereux(),
+                categorie.getTemperatureRequise(), categorie.getRestrictions(),
+                categorie.getDateCreation(), categorie.getDateModification(),
+                DATE, DATE, 1L);
+    }
+
+    /**
+     * JwtUtil configuré comme par Spring (@Value puis @PostConstruct)
+     */
+    static JwtUtil jwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        return jwtUtil;
+    }
+
+    /**
+     * Token au format du Service Utilisateurs (mêmes claims que util.JwtTokenGenerator)
+     */
+    static String token(long userId, String role) {
+        long maintenant = System.currentTimeMillis();
+        return Jwts.builder()
+                .claims(Map.of(
+                        "userId", userId,
+                        "user_id", userId,
+                        "email", "client" + userId + "@email.com",
+                        "role", role,
+                        "user_type", role))
+                .subject("client" + userId + "@email.com")
+                .issuedAt(new Date(maintenant))
+                .expiration(new Date(maintenant + 86_400_000L))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
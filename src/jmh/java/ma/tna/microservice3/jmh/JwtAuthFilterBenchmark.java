@@ -0,0 +1,73 @@
+package ma.tna.microservice3.jmh;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import ma.tna.microservice3.security.JwtAuthFilter;
+import ma.tna.microservice3.security.JwtPrincipalCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par requête du filtre JWT : extraction de l'en-tête, identité servie par le cache,
+ * construction de l'authentification et du contexte de sécurité
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private JwtAuthFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setup() {
+        JwtPrincipalCache principalCache = new JwtPrincipalCache(
+                JeuDeDonnees.jwtUtil(), new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(10));
+        filter = new JwtAuthFilter(principalCache);
+        authorization = "Bearer " + JeuDeDonnees.token(1L, "CLIENT");
+    }
+
+    @Benchmark
+    public Authentication requeteAuthentifiee() throws ServletException, IOException {
+        return filtrer(authorization);
+    }
+
+    @Benchmark
+    public Authentication requeteAnonyme() throws ServletException, IOException {
+        return filtrer(null);
+    }
+
+    private Authentication filtrer(String enTete) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/demandes/1");
+        request.setServletPath("/api/v1/demandes/1");
+        if (enTete != null) {
+            request.addHeader("Authorization", enTete);
+        }
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
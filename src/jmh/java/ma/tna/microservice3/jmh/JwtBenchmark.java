@@ -0,0 +1,58 @@
+package ma.tna.microservice3.jmh;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.tna.microservice3.security.JwtPrincipal;
+import ma.tna.microservice3.security.JwtPrincipalCache;
+import ma.tna.microservice3.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérification des tokens JWT : parseur seul (premier passage d'un token) et via le cache d'identités
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private JwtPrincipalCache principalCache;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = JeuDeDonnees.jwtUtil();
+        principalCache = new JwtPrincipalCache(jwtUtil, new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(10));
+        token = JeuDeDonnees.token(1L, "CLIENT");
+        principalCache.get(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal parse() {
+        return jwtUtil.parse(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal principalCacheHit() {
+        return principalCache.get(token);
+    }
+}
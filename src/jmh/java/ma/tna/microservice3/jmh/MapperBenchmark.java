@@ -0,0 +1,63 @@
+package ma.tna.microservice3.jmh;
+
+import ma.tna.microservice3.dto.CategorieResponseDTO;
+import ma.tna.microservice3.dto.DemandeResponseDTO;
+import ma.tna.microservice3.mapper.CategorieMapper;
+import ma.tna.microservice3.mapper.DemandeMapper;
+import ma.tna.microservice3.model.Categorie;
+import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.repository.projection.DemandeView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion entité/projection vers DTO (appelée pour chaque demande renvoyée par l'API)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private CategorieMapper categorieMapper;
+    private DemandeMapper demandeMapper;
+    private Categorie categorie;
+    private Demande demande;
+    private DemandeView view;
+
+    @Setup
+    public void setup() {
+        categorieMapper = new CategorieMapper();
+        demandeMapper = new DemandeMapper(categorieMapper);
+        categorie = JeuDeDonnees.categorie();
+        demande = JeuDeDonnees.demande(1L);
+        view = JeuDeDonnees.demandeView(1L);
+    }
+
+    @Benchmark
+    public CategorieResponseDTO categorieToResponseDTO() {
+        return categorieMapper.toResponseDTO(categorie);
+    }
+
+    @Benchmark
+    public DemandeResponseDTO demandeToResponseDTO() {
+        return demandeMapper.toResponseDTO(demande);
+    }
+
+    @Benchmark
+    public DemandeResponseDTO demandeViewToResponseDTO() {
+        return demandeMapper.toResponseDTO(view);
+    }
+}
@@ -0,0 +1,60 @@
+package ma.tna.microservice3.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ma.tna.microservice3.dto.DemandeResponseDTO;
+import ma.tna.microservice3.mapper.CategorieMapper;
+import ma.tna.microservice3.mapper.DemandeMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Sérialisation JSON d'une liste de demandes (corps des réponses de liste et de recherche)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerialisationBenchmark {
+
+    /** Tailles de page : une demande, page par défaut, page maximale */
+    @Param({"1", "20", "100"})
+    public int taille;
+
+    private ObjectMapper objectMapper;
+    private List<DemandeResponseDTO> demandes;
+
+    @Setup
+    public void setup() {
+        // Même configuration que l'ObjectMapper auto-configuré par Spring Boot (dates ISO-8601)
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        DemandeMapper mapper = new DemandeMapper(new CategorieMapper());
+        demandes = LongStream.rangeClosed(1, taille)
+                .mapToObj(id -> mapper.toResponseDTO(JeuDeDonnees.demandeView(id)))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] listeDemandes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(demandes);
+    }
+}
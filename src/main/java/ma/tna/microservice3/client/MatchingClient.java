@@ -0,0 +1,64 @@
+package ma.tna.microservice3.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Client non bloquant du service Matching
+ */
+@Component
+public class MatchingClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchingClient.class);
+
+    private final WebClient webClient;
+
+    @Value("${service.url.matching}")
+    private String matchingServiceUrl;
+
+    public MatchingClient(@Qualifier("matchingWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    /**
+     * Demande au service Matching de rechercher un transporteur
+     * Les erreurs (service indisponible, délai dépassé, réponse 4xx/5xx) sont propagées à l'appelant
+     * @param payload Le corps JSON de la requête (contient demandeId)
+     * @return Complété quand le service a accepté la requête
+     */
+    public Mono<Void> rechercher(String payload) {
+        logger.debug("Appel au service Matching: {}", payload);
+
+        return webClient.post()
+                .uri(matchingServiceUrl + "/rechercher")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(payload)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+
+    /**
+     * Notifie le service Matching d'un changement de statut groupé
+     * Les erreurs sont propagées à l'appelant
+     * @param payload Le corps JSON (nouveauStatut, demandeIds)
+     * @return Complété quand le service a accepté la notification
+     */
+    public Mono<Void> notifierStatuts(String payload) {
+        logger.debug("Notification groupée au service Matching: {}", payload);
+
+        return webClient.post()
+                .uri(matchingServiceUrl + "/demandes/statut")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(payload)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+}
@@ -0,0 +1,16 @@
+package ma.tna.microservice3.client;
+
+/**
+ * Paramètres d'une demande de devis auprès du service Tarification
+ * @param volume Volume de la marchandise en m³
+ * @param poids Poids de la marchandise en kg (optionnel)
+ * @param distanceKm Distance en kilomètres (optionnelle, depuis le service Itinéraires)
+ * @param categorieId ID de la catégorie de marchandise (optionnel)
+ */
+public record ParametresDevis(
+        Double volume,
+        Double poids,
+        Double distanceKm,
+        String categorieId
+) {
+}
@@ -0,0 +1,99 @@
+package ma.tna.microservice3.client;
+
+import ma.tna.microservice3.dto.TarifResponseDTO;
+import ma.tna.microservice3.dto.TarifVersionDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Client non bloquant du service Tarification
+ */
+@Component
+public class TarificationClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(TarificationClient.class);
+
+    private final WebClient webClient;
+
+    @Value("${service.url.tarification}")
+    private String tarificationServiceUrl;
+
+    public TarificationClient(@Qualifier("tarificationWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    /**
+     * Demande un devis au service Tarification
+     * Les erreurs (service indisponible, délai dépassé) sont propagées à l'appelant
+     * @param parametres Les paramètres du devis
+     * @return Le tarif calculé
+     */
+    public Mono<TarifResponseDTO> calculer(ParametresDevis parametres) {
+        logger.debug("Appel au service Tarification: {}", parametres);
+
+        return webClient.post()
+                .uri(tarificationServiceUrl + "/calculer")
+                .bodyValue(corps(parametres))
+                .retrieve()
+                .bodyToMono(TarifResponseDTO.class);
+    }
+
+    /**
+     * Demande les devis d'un lot en un seul appel (POST /calculer/lot, réponses dans l'ordre des demandes)
+     * Les erreurs (endpoint absent, service indisponible, réponse incomplète) sont propagées à l'appelant
+     * @param parametres Les paramètres des devis
+     * @return Les tarifs calculés, dans le même ordre
+     */
+    public Mono<List<TarifResponseDTO>> calculerLot(List<ParametresDevis> parametres) {
+        logger.debug("Appel groupé au service Tarification: {} devis", parametres.size());
+
+        List<Map<String, Object>> requestBody = parametres.stream()
+                .map(TarificationClient::corps)
+                .toList();
+
+        return webClient.post()
+                .uri(tarificationServiceUrl + "/calculer/lot")
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(TarifResponseDTO.class)
+                .collectList()
+                .flatMap(tarifs -> tarifs.size() == parametres.size()
+                        ? Mono.just(tarifs)
+                        : Mono.error(new IllegalStateException("Réponse groupée incomplète: "
+                                + tarifs.size() + " tarifs pour " + parametres.size() + " demandes")));
+    }
+
+    /**
+     * Version des tarifs en vigueur (GET /version)
+     * Les erreurs (endpoint absent, service indisponible) sont propagées à l'appelant
+     * @return La version annoncée par le service Tarification
+     */
+    public Mono<String> version() {
+        return webClient.get()
+                .uri(tarificationServiceUrl + "/version")
+                .retrieve()
+                .bodyToMono(TarifVersionDTO.class)
+                .mapNotNull(TarifVersionDTO::version);
+    }
+
+    /**
+     * Corps d'une demande de devis : seuls ces champs sont tarifés (et composent la clé de DevisCache)
+     */
+    private static Map<String, Object> corps(ParametresDevis parametres) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("volume", parametres.volume());
+        if (parametres.distanceKm() != null) {
+            requestBody.put("distanceKm", parametres.distanceKm());
+        }
+        return requestBody;
+    }
+}
@@ -0,0 +1,49 @@
+package ma.tna.microservice3.client;
+
+import ma.tna.microservice3.dto.ClientInfoDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Client non bloquant du Service Utilisateurs
+ */
+@Component
+public class UtilisateursClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(UtilisateursClient.class);
+
+    private final WebClient webClient;
+
+    @Value("${service.url.utilisateurs}")
+    private String utilisateursServiceUrl;
+
+    public UtilisateursClient(@Qualifier("utilisateursWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    /**
+     * Récupère les informations d'un utilisateur
+     * Les erreurs (service indisponible, délai dépassé, réponse 4xx/5xx) sont propagées à l'appelant
+     * @param clientId L'ID de l'utilisateur
+     * @param authToken Le header Authorization transmis au Service Utilisateurs
+     * @return Les informations de l'utilisateur (vide si la réponse n'a pas de corps)
+     */
+    public Mono<ClientInfoDTO> getClient(Long clientId, String authToken) {
+        // L'URL du service utilisateurs est: http://172.30.80.11:31019/account
+        // L'endpoint est: GET /users/{id}/
+        String url = utilisateursServiceUrl.replace("/account", "") + "/account/users/" + clientId + "/";
+        logger.debug("Appel au service Utilisateurs: {}", url);
+
+        return webClient.get()
+                .uri(url)
+                .header(HttpHeaders.AUTHORIZATION, authToken)
+                .retrieve()
+                .bodyToMono(ClientInfoDTO.class);
+    }
+}
@@ -0,0 +1,126 @@
+package ma.tna.microservice3.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Réglages des clients HTTP vers les autres microservices (service.client.*)
+ * La clé "default" fournit les valeurs communes, chaque service peut les surcharger :
+ * service.client.default.connect-timeout=2s
+ * service.client.tarification.response-timeout=3s
+ */
+@Data
+@ConfigurationProperties(prefix = "service")
+public class DownstreamClientProperties {
+
+    public static final String DEFAULT = "default";
+
+    /**
+     * Réglages par service aval (tarification, matching, itineraires, utilisateurs)
+     */
+    private Map<String, Settings> client = new HashMap<>();
+
+    /**
+     * Retourne les réglages effectifs d'un service : ses surcharges, complétées par "default"
+     * puis par les valeurs par défaut de {@link Settings}
+     */
+    public Settings resolve(String name) {
+        Settings defaults = Settings.builtIn().mergedWith(client.get(DEFAULT));
+        return defaults.mergedWith(client.get(name));
+    }
+
+    @Data
+    public static class Settings {
+
+        /**
+         * Nombre maximal de connexions dans le pool
+         */
+        private Integer maxConnections;
+
+        /**
+         * Nombre maximal de requêtes en attente d'une connexion libre
+         */
+        private Integer pendingAcquireMaxCount;
+
+        /**
+         * Durée maximale d'attente d'une connexion libre
+         */
+        private Duration pendingAcquireTimeout;
+
+        /**
+         * Délai d'établissement de la connexion TCP
+         */
+        private Duration connectTimeout;
+
+        /**
+         * Délai maximal sans données reçues sur une connexion
+         */
+        private Duration readTimeout;
+
+        /**
+         * Délai maximal de réception de la réponse complète
+         */
+        private Duration responseTimeout;
+
+        /**
+         * Durée d'inactivité après laquelle une connexion du pool est fermée
+         */
+        private Duration maxIdleTime;
+
+        /**
+         * Durée de vie maximale d'une connexion du pool
+         */
+        private Duration maxLifeTime;
+
+        /**
+         * Intervalle d'éviction en tâche de fond des connexions inactives ou expirées
+         */
+        private Duration evictionInterval;
+
+        /**
+         * Active HTTP/2 en clair (h2c, par upgrade depuis HTTP/1.1) si le service le supporte
+         */
+        private Boolean http2;
+
+        static Settings builtIn() {
+            Settings settings = new Settings();
+            settings.setMaxConnections(50);
+            settings.setPendingAcquireMaxCount(200);
+            settings.setPendingAcquireTimeout(Duration.ofSeconds(5));
+            settings.setConnectTimeout(Duration.ofSeconds(2));
+            settings.setReadTimeout(Duration.ofSeconds(5));
+            settings.setResponseTimeout(Duration.ofSeconds(5));
+            settings.setMaxIdleTime(Duration.ofSeconds(30));
+            settings.setMaxLifeTime(Duration.ofMinutes(5));
+            settings.setEvictionInterval(Duration.ofSeconds(30));
+            settings.setHttp2(false);
+            return settings;
+        }
+
+        Settings mergedWith(Settings overrides) {
+            if (overrides == null) {
+                return this;
+            }
+            Settings merged = new Settings();
+            merged.setMaxConnections(pick(overrides.getMaxConnections(), maxConnections));
+            merged.setPendingAcquireMaxCount(pick(overrides.getPendingAcquireMaxCount(), pendingAcquireMaxCount));
+            merged.setPendingAcquireTimeout(pick(overrides.getPendingAcquireTimeout(), pendingAcquireTimeout));
+            merged.setConnectTimeout(pick(overrides.getConnectTimeout(), connectTimeout));
+            merged.setReadTimeout(pick(overrides.getReadTimeout(), readTimeout));
+            merged.setResponseTimeout(pick(overrides.getResponseTimeout(), responseTimeout));
+            merged.setMaxIdleTime(pick(overrides.getMaxIdleTime(), maxIdleTime));
+            merged.setMaxLifeTime(pick(overrides.getMaxLifeTime(), maxLifeTime));
+            merged.setEvictionInterval(pick(overrides.getEvictionInterval(), evictionInterval));
+            merged.setHttp2(pick(overrides.getHttp2(), http2));
+            return merged;
+        }
+
+        private static <T> T pick(T override, T fallback) {
+            return override != null ? override : fallback;
+        }
+    }
+}
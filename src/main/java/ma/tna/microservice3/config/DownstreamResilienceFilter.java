@@ -0,0 +1,138 @@
+package ma.tna.microservice3.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Disjoncteur et cloison d'un service aval, appliqués à chaque appel de son WebClient
+ * - la cloison (sémaphore) plafonne les appels simultanés et rejette immédiatement au-delà ;
+ * - le disjoncteur compte les erreurs réseau, délais dépassés et réponses 5xx (les 4xx sont des réponses
+ *   valides) ainsi que les appels lents, et rejette immédiatement les appels tant qu'il est ouvert.
+ * Un appel se termine avec la lecture du corps de la réponse (retrieve().bodyTo*), pas à la réception des en-têtes :
+ * la place de la cloison est rendue et le résultat compté par le disjoncteur (durée, erreur de lecture du corps)
+ * à ce moment-là.
+ * Les rejets (CallNotPermittedException, BulkheadFullException) sont propagés comme les autres erreurs :
+ * chaque appelant applique son repli habituel (devis par défaut, valeur périmée, nouvel essai de l'outbox).
+ */
+public class DownstreamResilienceFilter implements ExchangeFilterFunction {
+
+    private static final Logger logger = LoggerFactory.getLogger(DownstreamResilienceFilter.class);
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public DownstreamResilienceFilter(CircuitBreaker circuitBreaker, Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+
+        String service = circuitBreaker.getName();
+        Counter circuitOuvert = rejets(meterRegistry, service, "circuit_open");
+        Counter cloisonPleine = rejets(meterRegistry, service, "bulkhead_full");
+        circuitBreaker.getEventPublisher()
+                .onCallNotPermitted(event -> circuitOuvert.increment())
+                .onStateTransition(event -> logger.warn("Disjoncteur '{}': {}", service,
+                        event.getStateTransition()));
+        bulkhead.getEventPublisher()
+                .onCallRejected(event -> cloisonPleine.increment());
+    }
+
+    private static Counter rejets(MeterRegistry meterRegistry, String service, String reason) {
+        return Counter.builder("downstream.calls.rejected")
+                .tag("service", service)
+                .tag("reason", reason)
+                .description("Appels à un service aval rejetés sans être émis (disjoncteur ouvert, cloison pleine)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @NonNull
+    public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        return Mono.defer(() -> {
+            // Cloison d'abord : un rejet pour saturation n'est pas compté par le disjoncteur
+            if (!bulkhead.tryAcquirePermission()) {
+                return Mono.error(BulkheadFullException.createBulkheadFullException(bulkhead));
+            }
+            if (!circuitBreaker.tryAcquirePermission()) {
+                bulkhead.onComplete();
+                return Mono.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+            }
+            Appel appel = new Appel();
+            return next.exchange(request)
+                    // Une réponse 5xx devient l'erreur que retrieve() aurait levée, pour être comptée comme un échec
+                    .flatMap(response -> response.statusCode().is5xxServerError()
+                            ? response.createException().flatMap(Mono::error)
+                            : Mono.just(appel.avecCorps(response).mutate()
+                                    .body(corps -> corps
+                                            .doOnComplete(appel::reussi)
+                                            .doOnError(appel::echoue)
+                                            .doOnCancel(appel::abandonne))
+                                    .build()))
+                    .doOnError(appel::echoue)
+                    .doOnCancel(appel::abandonneAvantReponse);
+        });
+    }
+
+    /**
+     * Un appel en cours : la place de la cloison et l'autorisation du disjoncteur sont rendues une seule fois,
+     * à la fin du corps, à la première erreur, ou à l'abandon par l'appelant (non compté, comme CircuitBreakerOperator)
+     */
+    private final class Appel {
+
+        private final long debut = circuitBreaker.getCurrentTimestamp();
+        private final AtomicBoolean termine = new AtomicBoolean();
+        private volatile boolean reponseRecue;
+
+        ClientResponse avecCorps(ClientResponse response) {
+            reponseRecue = true;
+            return response;
+        }
+
+        void reussi() {
+            if (termine.compareAndSet(false, true)) {
+                bulkhead.onComplete();
+                circuitBreaker.onSuccess(duree(), circuitBreaker.getTimestampUnit());
+            }
+        }
+
+        void echoue(Throwable erreur) {
+            if (termine.compareAndSet(false, true)) {
+                bulkhead.onComplete();
+                circuitBreaker.onError(duree(), circuitBreaker.getTimestampUnit(), erreur);
+            }
+        }
+
+        /**
+         * Une fois la réponse transmise, seul le corps termine l'appel
+         */
+        void abandonneAvantReponse() {
+            if (!reponseRecue) {
+                abandonne();
+            }
+        }
+
+        void abandonne() {
+            if (termine.compareAndSet(false, true)) {
+                bulkhead.onComplete();
+                circuitBreaker.releasePermission();
+            }
+        }
+
+        private long duree() {
+            return circuitBreaker.getCurrentTimestamp() - debut;
+        }
+    }
+}
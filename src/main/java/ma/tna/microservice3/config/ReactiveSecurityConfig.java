@@ -0,0 +1,58 @@
+package ma.tna.microservice3.config;
+
+import ma.tna.microservice3.security.JwtAuthWebFilter;
+import ma.tna.microservice3.security.JwtPrincipalCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Configuration Spring Security du profil "reactive" (WebFlux) avec JWT
+ * Mêmes règles que {@link SecurityConfig} pour les routes servies par ce profil
+ */
+@Configuration
+@Profile("reactive")
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtPrincipalCache principalCache) {
+        http
+                // Désactiver CSRF car on utilise JWT
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .logout(ServerHttpSecurity.LogoutSpec::disable)
+
+                // Sans état : l'authentification est reconstruite à chaque requête depuis le token
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+
+                .authorizeExchange(auth -> auth
+                        // Routes publiques (actuator, documentation)
+                        .pathMatchers("/actuator/**", "/").permitAll()
+
+                        // Routes catégories publiques (lecture seule)
+                        .pathMatchers(HttpMethod.GET, "/api/v1/categories/**").permitAll()
+
+                        .anyExchange().authenticated()
+                )
+
+                // Requête anonyme sur une route protégée : 403, comme le profil servlet
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+
+                .addFilterAt(new JwtAuthWebFilter(principalCache), SecurityWebFiltersOrder.AUTHENTICATION);
+
+        return http.build();
+    }
+}
@@ -0,0 +1,39 @@
+package ma.tna.microservice3.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Infrastructure du profil "reactive" (WebFlux + R2DBC)
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveWebConfig {
+
+    /**
+     * Netty plutôt que Tomcat : Tomcat est aussi sur le classpath (profil servlet)
+     * et l'auto-configuration réactive le choisirait en premier
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Pool JDBC de JPA (traitements en arrière-plan : devis, outbox)
+     * L'auto-configuration du DataSource s'efface dès qu'une ConnectionFactory R2DBC existe : il est déclaré ici
+     * à partir des mêmes propriétés spring.datasource.*
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
@@ -1,14 +1,57 @@
 package ma.tna.microservice3.config;
 
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration du WebClient pour les appels inter-services
+ * Chaque service aval dispose de son propre pool de connexions et de ses propres délais
+ * (voir {@link DownstreamClientProperties}), pour qu'un service lent n'épuise pas les ressources des autres.
+ * Les jauges des pools sont publiées dans Micrometer (reactor.netty.connection.provider.*)
+ * Chaque WebClient passe aussi par le disjoncteur et la cloison de son service ({@link DownstreamResilienceFilter},
+ * instances resilience4j.circuitbreaker.instances.* et resilience4j.bulkhead.instances.*)
  */
 @Configuration
-public class WebClientConfig {
+@EnableConfigurationProperties(DownstreamClientProperties.class)
+public class WebClientConfig implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebClientConfig.class);
+
+    private final DownstreamClientProperties properties;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+    private final List<ConnectionProvider> providers = new CopyOnWriteArrayList<>();
+
+    public WebClientConfig(
+            DownstreamClientProperties properties,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+    }
 
     @Bean
     public WebClient.Builder webClientBuilder() {
@@ -16,8 +59,64 @@ public class WebClientConfig {
     }
 
     @Bean
-    public WebClient webClient(WebClient.Builder webClientBuilder) {
-        return webClientBuilder.build();
+    public WebClient tarificationWebClient(WebClient.Builder webClientBuilder) {
+        return build("tarification", webClientBuilder);
+    }
+
+    @Bean
+    public WebClient matchingWebClient(WebClient.Builder webClientBuilder) {
+        return build("matching", webClientBuilder);
+    }
+
+    @Bean
+    public WebClient itinerairesWebClient(WebClient.Builder webClientBuilder) {
+        return build("itineraires", webClientBuilder);
     }
-}
 
+    @Bean
+    public WebClient utilisateursWebClient(WebClient.Builder webClientBuilder) {
+        return build("utilisateurs", webClientBuilder);
+    }
+
+    private WebClient build(String name, WebClient.Builder webClientBuilder) {
+        DownstreamClientProperties.Settings settings = properties.resolve(name);
+        logger.info("Client HTTP '{}': {}", name, settings);
+
+        ConnectionProvider provider = ConnectionProvider.builder(name)
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireMaxCount(settings.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(settings.getPendingAcquireTimeout())
+                .maxIdleTime(settings.getMaxIdleTime())
+                .maxLifeTime(settings.getMaxLifeTime())
+                .evictInBackground(settings.getEvictionInterval())
+                .metrics(true)
+                .build();
+        providers.add(provider);
+
+        long readTimeoutMillis = settings.getReadTimeout().toMillis();
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(settings.getResponseTimeout())
+                .doOnConnected(connection -> connection.addHandlerLast(
+                        new ReadTimeoutHandler(readTimeoutMillis, TimeUnit.MILLISECONDS)))
+                .protocol(Boolean.TRUE.equals(settings.getHttp2())
+                        ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11});
+
+        DownstreamResilienceFilter resilience = new DownstreamResilienceFilter(
+                circuitBreakerRegistry.circuitBreaker(name),
+                bulkheadRegistry.bulkhead(name),
+                meterRegistry);
+
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(resilience)
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        providers.forEach(ConnectionProvider::dispose);
+    }
+}
@@ -2,6 +2,7 @@ package ma.tna.microservice3.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,19 +11,32 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import ma.tna.microservice3.dto.CategorieRequestDTO;
 import ma.tna.microservice3.dto.CategorieResponseDTO;
+import ma.tna.microservice3.dto.CategorieSuggestionDTO;
+import ma.tna.microservice3.service.CategorieCatalog;
 import ma.tna.microservice3.service.CategorieService;
+import ma.tna.microservice3.service.VueSerialisee;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Contrôleur REST pour la gestion des catégories de marchandise
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/categories")
 @Tag(name = "Catégories de Marchandise", description = "API de gestion des catégories de marchandise")
 public class CategorieController {
@@ -30,9 +44,15 @@ public class CategorieController {
     private static final Logger logger = LoggerFactory.getLogger(CategorieController.class);
 
     private final CategorieService categorieService;
+    private final CacheControl cacheControl;
 
-    public CategorieController(CategorieService categorieService) {
+    public CategorieController(
+            CategorieService categorieService,
+            @Value("${categories.http.cache.max-age:5m}") Duration maxAge,
+            @Value("${categories.http.cache.stale-while-revalidate:1m}") Duration staleWhileRevalidate
+    ) {
         this.categorieService = categorieService;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().staleWhileRevalidate(staleWhileRevalidate);
     }
 
     /**
@@ -97,11 +117,11 @@ public class CategorieController {
     @GetMapping("/{id}")
     public ResponseEntity<CategorieResponseDTO> getCategorieById(
             @Parameter(description = "ID de la catégorie (UUID)", required = true)
-            @PathVariable String id
+            @PathVariable String id,
+            WebRequest request
     ) {
         logger.info("Récupération de la catégorie ID: {}", id);
-        CategorieResponseDTO response = categorieService.getCategorieById(id);
-        return ResponseEntity.ok(response);
+        return conditionnelle(request, () -> categorieService.getCategorieById(id));
     }
 
     /**
@@ -112,13 +132,14 @@ public class CategorieController {
         description = "Retourne la liste de toutes les catégories de marchandise"
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Liste des catégories récupérée avec succès")
+        @ApiResponse(responseCode = "200", description = "Liste des catégories récupérée avec succès",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = CategorieResponseDTO.class)))),
+        @ApiResponse(responseCode = "304", description = "Catalogue inchangé (If-None-Match / If-Modified-Since)")
     })
     @GetMapping
-    public ResponseEntity<List<CategorieResponseDTO>> getAllCategories() {
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request) {
         logger.info("Récupération de toutes les catégories");
-        List<CategorieResponseDTO> categories = categorieService.getAllCategories();
-        return ResponseEntity.ok(categories);
+        return serialisee(request, CategorieCatalog::serialiseAll);
     }
 
     /**
@@ -136,11 +157,11 @@ public class CategorieController {
     @GetMapping("/nom/{nom}")
     public ResponseEntity<CategorieResponseDTO> getCategorieByNom(
             @Parameter(description = "Nom de la catégorie", required = true)
-            @PathVariable String nom
+            @PathVariable String nom,
+            WebRequest request
     ) {
         logger.info("Recherche de la catégorie par nom: {}", nom);
-        CategorieResponseDTO response = categorieService.getCategorieByNom(nom);
-        return ResponseEntity.ok(response);
+        return conditionnelle(request, () -> categorieService.getCategorieByNom(nom));
     }
 
     /**
@@ -148,7 +169,8 @@ public class CategorieController {
      */
     @Operation(
         summary = "Rechercher des catégories par mot-clé",
-        description = "Retourne les catégories dont le nom contient le mot-clé"
+        description = "Retourne les catégories dont le nom contient le mot-clé ou lui ressemble, insensible à la casse " +
+                      "et aux accents, les plus similaires en premier"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste des catégories correspondantes")
@@ -156,11 +178,35 @@ public class CategorieController {
     @GetMapping("/search")
     public ResponseEntity<List<CategorieResponseDTO>> searchCategories(
             @Parameter(description = "Mot-clé de recherche", required = true)
-            @RequestParam String keyword
+            @RequestParam String keyword,
+            WebRequest request
     ) {
         logger.info("Recherche de catégories avec mot-clé: {}", keyword);
-        List<CategorieResponseDTO> categories = categorieService.searchCategories(keyword);
-        return ResponseEntity.ok(categories);
+        return conditionnelle(request, () -> categorieService.searchCategories(keyword));
+    }
+
+    /**
+     * Autocomplétion des catégories par préfixe du nom
+     */
+    @Operation(
+        summary = "Autocompléter le nom d'une catégorie",
+        description = "Retourne les catégories dont le nom, ou l'un de ses mots, commence par le préfixe " +
+                      "(insensible à la casse et aux accents : \"electro\" trouve \"Électroménager\")"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Suggestions, noms commençant par le préfixe d'abord",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = CategorieSuggestionDTO.class)))),
+        @ApiResponse(responseCode = "304", description = "Catalogue inchangé (If-None-Match / If-Modified-Since)")
+    })
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<CategorieSuggestionDTO>> autocompleterCategories(
+            @Parameter(description = "Début du nom saisi", required = true)
+            @RequestParam String prefix,
+            @Parameter(description = "Nombre maximal de suggestions")
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest request
+    ) {
+        return conditionnelle(request, () -> categorieService.autocompleter(prefix, Math.max(1, limit)));
     }
 
     /**
@@ -171,16 +217,18 @@ public class CategorieController {
         description = "Retourne les catégories selon leur caractère fragile"
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Liste des catégories correspondantes")
+        @ApiResponse(responseCode = "200", description = "Liste des catégories correspondantes",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = CategorieResponseDTO.class)))),
+        @ApiResponse(responseCode = "304", description = "Catalogue inchangé (If-None-Match / If-Modified-Since)")
     })
     @GetMapping("/filter/fragile")
-    public ResponseEntity<List<CategorieResponseDTO>> getCategoriesByFragile(
+    public ResponseEntity<byte[]> getCategoriesByFragile(
             @Parameter(description = "Filtrer par fragilité (true/false)", required = true)
-            @RequestParam Boolean fragile
+            @RequestParam Boolean fragile,
+            WebRequest request
     ) {
         logger.info("Filtrage des catégories par fragilité: {}", fragile);
-        List<CategorieResponseDTO> categories = categorieService.getCategoriesByFragile(fragile);
-        return ResponseEntity.ok(categories);
+        return serialisee(request, catalogue -> catalogue.serialiseByFragile(fragile));
     }
 
     /**
@@ -191,16 +239,18 @@ public class CategorieController {
         description = "Retourne les catégories selon leur caractère dangereux"
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Liste des catégories correspondantes")
+        @ApiResponse(responseCode = "200", description = "Liste des catégories correspondantes",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = CategorieResponseDTO.class)))),
+        @ApiResponse(responseCode = "304", description = "Catalogue inchangé (If-None-Match / If-Modified-Since)")
     })
     @GetMapping("/filter/dangereux")
-    public ResponseEntity<List<CategorieResponseDTO>> getCategoriesByDangereux(
+    public ResponseEntity<byte[]> getCategoriesByDangereux(
             @Parameter(description = "Filtrer par dangerosité (true/false)", required = true)
-            @RequestParam Boolean dangereux
+            @RequestParam Boolean dangereux,
+            WebRequest request
     ) {
         logger.info("Filtrage des catégories par dangerosité: {}", dangereux);
-        List<CategorieResponseDTO> categories = categorieService.getCategoriesByDangereux(dangereux);
-        return ResponseEntity.ok(categories);
+        return serialisee(request, catalogue -> catalogue.serialiseByDangereux(dangereux));
     }
 
     /**
@@ -211,16 +261,18 @@ public class CategorieController {
         description = "Retourne les catégories selon la température requise pour le transport"
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Liste des catégories correspondantes")
+        @ApiResponse(responseCode = "200", description = "Liste des catégories correspondantes",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = CategorieResponseDTO.class)))),
+        @ApiResponse(responseCode = "304", description = "Catalogue inchangé (If-None-Match / If-Modified-Since)")
     })
     @GetMapping("/filter/temperature")
-    public ResponseEntity<List<CategorieResponseDTO>> getCategoriesByTemperature(
+    public ResponseEntity<byte[]> getCategoriesByTemperature(
             @Parameter(description = "Température requise (ambiante, refrigere, congele)", required = true)
-            @RequestParam String temperature
+            @RequestParam String temperature,
+            WebRequest request
     ) {
         logger.info("Filtrage des catégories par température: {}", temperature);
-        List<CategorieResponseDTO> categories = categorieService.getCategoriesByTemperature(temperature);
-        return ResponseEntity.ok(categories);
+        return serialisee(request, catalogue -> catalogue.serialiseByTemperature(temperature));
     }
 
     /**
@@ -243,4 +295,79 @@ public class CategorieController {
         categorieService.supprimerCategorie(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Réponse conditionnelle sur la version du catalogue (If-None-Match / If-Modified-Since)
+     * Client à jour : 304 sans exécuter la lecture ; sinon 200 avec ETag, Last-Modified et Cache-Control
+     */
+    private <T> ResponseEntity<T> conditionnelle(WebRequest request, Supplier<T> lecture) {
+        CategorieCatalog catalogue = categorieService.getCatalogue();
+        if (request.checkNotModified(catalogue.etag(), catalogue.derniereModification().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).body(lecture.get());
+    }
+
+    /**
+     * Réponse conditionnelle servie depuis une vue pré-sérialisée du catalogue
+     * Les octets (JSON, ou gzip si le client l'accepte) sont écrits tels quels, sans passer par Jackson ;
+     * chaque encodage a son propre ETag fort
+     */
+    private ResponseEntity<byte[]> serialisee(WebRequest request, Function<CategorieCatalog, VueSerialisee> vue) {
+        CategorieCatalog catalogue = categorieService.getCatalogue();
+        VueSerialisee serialisee = vue.apply(catalogue);
+        boolean gzip = serialisee.gzip() != null && accepteGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? etagGzip(catalogue.etag()) : catalogue.etag();
+
+        if (request.checkNotModified(etag, catalogue.derniereModification().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder reponse = ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return reponse.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serialisee.gzip());
+        }
+        return reponse.body(serialisee.json());
+    }
+
+    /**
+     * Indique si l'en-tête Accept-Encoding accepte gzip (gzip ou *, avec une qualité non nulle)
+     */
+    static boolean accepteGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String element : acceptEncoding.split(",")) {
+            String[] parametres = element.split(";");
+            String codage = parametres[0].trim();
+            if (!codage.equalsIgnoreCase("gzip") && !codage.equals("*")) {
+                continue;
+            }
+            boolean refuse = false;
+            for (int i = 1; i < parametres.length; i++) {
+                String parametre = parametres[i].trim();
+                if (parametre.startsWith("q=")) {
+                    try {
+                        refuse = Double.parseDouble(parametre.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refuse = true;
+                    }
+                }
+            }
+            if (!refuse) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String etagGzip(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
 }
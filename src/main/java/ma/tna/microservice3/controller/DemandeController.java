@@ -10,25 +10,47 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import ma.tna.microservice3.dto.ClientInfoDTO;
 import ma.tna.microservice3.dto.DemandeAssociationDTO;
+import ma.tna.microservice3.dto.DemandeBulkResultDTO;
+import ma.tna.microservice3.dto.DemandePageDTO;
 import ma.tna.microservice3.dto.DemandeRequestDTO;
 import ma.tna.microservice3.dto.DemandeResponseDTO;
+import ma.tna.microservice3.dto.DemandeSearchCriteria;
+import ma.tna.microservice3.dto.MissionClientsDTO;
+import ma.tna.microservice3.dto.TransitionStatutRequestDTO;
+import ma.tna.microservice3.dto.TransitionStatutResultDTO;
+import ma.tna.microservice3.exception.BadRequestException;
+import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.service.ClientInfoService;
+import ma.tna.microservice3.service.DemandeExportService;
+import ma.tna.microservice3.service.DemandeLue;
 import ma.tna.microservice3.service.DemandeService;
+import ma.tna.microservice3.util.DemandeEtag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Contrôleur REST pour la gestion des demandes de transport
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/demandes")
 @Tag(name = "Demandes de Transport", description = "API de gestion des demandes de transport")
 public class DemandeController {
@@ -36,9 +58,17 @@ public class DemandeController {
     private static final Logger logger = LoggerFactory.getLogger(DemandeController.class);
 
     private final DemandeService demandeService;
+    private final DemandeExportService demandeExportService;
+    private final ClientInfoService clientInfoService;
 
-    public DemandeController(DemandeService demandeService) {
+    public DemandeController(
+            DemandeService demandeService,
+            DemandeExportService demandeExportService,
+            ClientInfoService clientInfoService
+    ) {
         this.demandeService = demandeService;
+        this.demandeExportService = demandeExportService;
+        this.clientInfoService = clientInfoService;
     }
 
     /**
@@ -68,6 +98,34 @@ public class DemandeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Crée un lot de demandes de transport (intégrations)
+     * Chaque élément est validé individuellement et le résultat est renvoyé élément par élément
+     */
+    @Operation(
+        summary = "Créer un lot de demandes de transport",
+        description = "Crée jusqu'à 500 demandes en une requête pour le client authentifié. Les éléments invalides " +
+                      "sont rejetés sans bloquer les autres ; les devis sont calculés en arrière-plan.",
+        security = {@io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth")}
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lot traité (voir le résultat de chaque élément)",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DemandeBulkResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Lot vide ou trop grand"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<DemandeBulkResultDTO> creerDemandes(
+            @RequestBody List<DemandeRequestDTO> requestDTOs
+    ) {
+        Long userId = getCurrentUserId();
+        logger.info("Création d'un lot de {} demandes par le client ID: {}", requestDTOs.size(), userId);
+
+        DemandeBulkResultDTO response = demandeService.creerDemandes(requestDTOs, userId);
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Valide une demande (par le client)
      * Le client confirme qu'il accepte le devis
@@ -82,19 +140,24 @@ public class DemandeController {
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = DemandeResponseDTO.class))),
         @ApiResponse(responseCode = "401", description = "Non authentifié"),
         @ApiResponse(responseCode = "403", description = "Accès refusé"),
-        @ApiResponse(responseCode = "404", description = "Demande non trouvée")
+        @ApiResponse(responseCode = "404", description = "Demande non trouvée"),
+        @ApiResponse(responseCode = "409", description = "Demande déjà validée, annulée ou modifiée simultanément"),
+        @ApiResponse(responseCode = "412", description = "If-Match ne correspond plus à la version actuelle")
     })
     @PutMapping("/{id}/validation")
     public ResponseEntity<DemandeResponseDTO> validerDemande(
             @Parameter(description = "ID de la demande à valider", required = true)
-            @PathVariable Long id
+            @PathVariable Long id,
+            @Parameter(description = "ETag de la version lue : la validation échoue (412) si la demande a changé depuis")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
         Long userId = getCurrentUserId();
         logger.info("Validation de la demande ID: {} par le client ID: {}", id, userId);
 
-        DemandeResponseDTO response = demandeService.validerDemandeClient(id, userId);
+        DemandeResponseDTO response = demandeService.validerDemandeClient(id, userId,
+                DemandeEtag.versionsAttendues(ifMatch));
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(DemandeEtag.of(response)).body(response);
     }
 
     /**
@@ -143,6 +206,46 @@ public class DemandeController {
         return ResponseEntity.ok(demandes);
     }
 
+    /**
+     * Exporte TOUTES les demandes en flux (Admin uniquement)
+     * Les lignes sont écrites au fil de la lecture du curseur, sans charger la table en mémoire
+     */
+    @Operation(
+        summary = "Exporter toutes les demandes (Admin)",
+        description = "Exporte toutes les demandes en flux continu, au format NDJSON (une demande JSON par ligne) ou CSV. " +
+                      "Accessible uniquement aux administrateurs.",
+        security = {@io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth")}
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export en cours de transmission"),
+        @ApiResponse(responseCode = "400", description = "Format d'export inconnu"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "403", description = "Accès refusé - Réservé aux administrateurs")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/admin/export")
+    public ResponseEntity<StreamingResponseBody> exporterDemandes(
+            @Parameter(description = "Format d'export (ndjson, csv)")
+            @RequestParam(defaultValue = "ndjson") String format,
+            NativeWebRequest webRequest
+    ) {
+        Long userId = getCurrentUserId();
+        DemandeExportService.Format exportFormat = parseFormat(format);
+        logger.info("Export des demandes au format {} par l'admin ID: {}", exportFormat, userId);
+
+        // Délai propre à l'export : les autres requêtes asynchrones gardent le délai par défaut
+        WebAsyncUtils.getAsyncManager(webRequest).getAsyncWebRequest()
+                .setTimeout(demandeExportService.getTimeout().toMillis());
+
+        StreamingResponseBody body = out -> demandeExportService.exporter(exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"demandes." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     /**
      * Récupère les demandes par mission ID (Prestataire)
      */
@@ -196,6 +299,88 @@ public class DemandeController {
         return ResponseEntity.ok(demandes);
     }
 
+    /**
+     * Change le statut d'un ensemble de demandes (Admin)
+     * Une seule requête UPDATE ensembliste, un seul événement envoyé au service Matching
+     */
+    @Operation(
+        summary = "Changer le statut d'un ensemble de demandes (Admin)",
+        description = "Sélectionne les demandes par liste d'IDs, par mission ou par filtre (exactement un critère) et " +
+                      "applique le nouveau statut à celles dont le statut actuel autorise la transition. " +
+                      "Les autres sont ignorées.",
+        security = {@io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth")}
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transition appliquée",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransitionStatutResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Statut inconnu, sélection invalide ou trop large"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "403", description = "Accès refusé - Réservé aux administrateurs")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/admin/statut/transition")
+    public ResponseEntity<TransitionStatutResultDTO> changerStatutEnMasse(
+            @Valid @RequestBody TransitionStatutRequestDTO requestDTO
+    ) {
+        logger.info("Changement de statut en masse vers: {}", requestDTO.nouveauStatut());
+
+        TransitionStatutResultDTO result = demandeService.changerStatutEnMasse(requestDTO);
+
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Recherche paginée des demandes avec filtres combinés
+     * Pagination par curseur (keyset sur dateCreation, id) : le coût d'une page ne dépend pas de sa position
+     */
+    @Operation(
+        summary = "Rechercher des demandes (pagination par curseur)",
+        description = "Retourne une page de demandes triées de la plus récente à la plus ancienne. " +
+                      "Repasser le champ 'nextCursor' dans le paramètre 'cursor' pour obtenir la page suivante. " +
+                      "Un CLIENT ne voit que ses propres demandes.",
+        security = {@io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth")}
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page de demandes récupérée avec succès",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DemandePageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Paramètres de recherche ou curseur invalides"),
+        @ApiResponse(responseCode = "401", description = "Non authentifié")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<DemandePageDTO> rechercherDemandes(
+            @Parameter(description = "Statut de validation (EN_ATTENTE_CLIENT, VALIDEE_CLIENT, ...)")
+            @RequestParam(required = false) String statut,
+            @Parameter(description = "ID du client (ignoré pour un CLIENT)")
+            @RequestParam(required = false) Long clientId,
+            @Parameter(description = "ID de la mission")
+            @RequestParam(required = false) Long missionId,
+            @Parameter(description = "ID de la catégorie de marchandise")
+            @RequestParam(required = false) String categorieId,
+            @Parameter(description = "Date de création minimale (incluse)", example = "2025-11-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime creeApres,
+            @Parameter(description = "Date de création maximale (exclue)", example = "2025-12-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime creeAvant,
+            @Parameter(description = "Ville de départ (correspondance exacte)")
+            @RequestParam(required = false) String villeDepart,
+            @Parameter(description = "Ville de destination (correspondance exacte)")
+            @RequestParam(required = false) String villeDestination,
+            @Parameter(description = "Curseur de continuation renvoyé par la page précédente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page (1 à 100)")
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        Long userId = getCurrentUserId();
+        String role = getCurrentUserRole();
+
+        DemandeSearchCriteria criteria = new DemandeSearchCriteria(
+                parseStatut(statut), clientId, missionId, categorieId,
+                creeApres, creeAvant, villeDepart, villeDestination);
+
+        DemandePageDTO page = demandeService.rechercherDemandes(criteria, cursor, size, userId, role);
+
+        return ResponseEntity.ok(page);
+    }
+
     /**
      * Récupère une demande spécifique par son ID
      */
@@ -207,6 +392,7 @@ public class DemandeController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Demande récupérée avec succès",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = DemandeResponseDTO.class))),
+        @ApiResponse(responseCode = "304", description = "Demande inchangée depuis l'ETag fourni (If-None-Match)"),
         @ApiResponse(responseCode = "401", description = "Non authentifié"),
         @ApiResponse(responseCode = "403", description = "Accès refusé"),
         @ApiResponse(responseCode = "404", description = "Demande non trouvée")
@@ -214,15 +400,20 @@ public class DemandeController {
     @GetMapping("/{id}")
     public ResponseEntity<DemandeResponseDTO> getDemandeById(
             @Parameter(description = "ID de la demande", required = true)
-            @PathVariable Long id
+            @PathVariable Long id,
+            @Parameter(description = "ETag déjà connu : 304 sans corps si la demande n'a pas changé")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
         Long userId = getCurrentUserId();
         String role = getCurrentUserRole();
         logger.info("Récupération de la demande ID: {} par l'utilisateur ID: {} avec rôle: {}", id, userId, role);
 
-        DemandeResponseDTO response = demandeService.getDemandeById(id, userId, role);
+        DemandeLue lue = demandeService.getDemandeSiModifiee(id, userId, role, ifNoneMatch);
+        if (!lue.estModifiee()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(lue.etag()).build();
+        }
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(lue.etag()).body(lue.demande());
     }
 
     /**
@@ -239,20 +430,25 @@ public class DemandeController {
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = DemandeResponseDTO.class))),
         @ApiResponse(responseCode = "400", description = "Données de requête invalides"),
         @ApiResponse(responseCode = "401", description = "Non authentifié"),
-        @ApiResponse(responseCode = "404", description = "Demande non trouvée")
+        @ApiResponse(responseCode = "404", description = "Demande non trouvée"),
+        @ApiResponse(responseCode = "409", description = "Demande modifiée simultanément"),
+        @ApiResponse(responseCode = "412", description = "If-Match ne correspond plus à la version actuelle")
     })
     @PutMapping("/{id}/association")
     public ResponseEntity<DemandeResponseDTO> associerDemande(
             @Parameter(description = "ID de la demande à associer", required = true)
             @PathVariable Long id,
-            @Valid @RequestBody DemandeAssociationDTO associationDTO
+            @Valid @RequestBody DemandeAssociationDTO associationDTO,
+            @Parameter(description = "ETag de la version lue : l'association échoue (412) si la demande a changé depuis")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
         logger.info("Association de la demande ID: {} avec mission ID: {} et itinéraire ID: {}",
                 id, associationDTO.missionId(), associationDTO.itineraireAssocieId());
 
-        DemandeResponseDTO response = demandeService.associerDemande(id, associationDTO);
+        DemandeResponseDTO response = demandeService.associerDemande(id, associationDTO,
+                DemandeEtag.versionsAttendues(ifMatch));
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(DemandeEtag.of(response)).body(response);
     }
 
     /**
@@ -273,7 +469,7 @@ public class DemandeController {
         @ApiResponse(responseCode = "404", description = "Demande ou client non trouvé")
     })
     @GetMapping("/{id}/client")
-    public ResponseEntity<ClientInfoDTO> getClientInfoByDemande(
+    public Mono<ResponseEntity<ClientInfoDTO>> getClientInfoByDemande(
             @Parameter(description = "ID de la demande", required = true)
             @PathVariable Long id,
             @RequestHeader("Authorization") String authHeader
@@ -283,9 +479,40 @@ public class DemandeController {
         logger.info("Récupération des infos client pour la demande ID: {} par l'utilisateur ID: {} avec rôle: {}", 
                 id, userId, role);
 
-        ClientInfoDTO clientInfo = demandeService.getClientInfoByDemande(id, userId, role, authHeader);
+        // Traitement asynchrone : le thread de la requête est libéré pendant l'appel au Service Utilisateurs
+        return clientInfoService.getClientInfoByDemande(id, userId, role, authHeader)
+                .map(ResponseEntity::ok);
+    }
 
-        return ResponseEntity.ok(clientInfo);
+    /**
+     * Récupère les informations de tous les clients d'une mission (Prestataire)
+     * Remplace N appels à /{id}/client par un seul appel
+     */
+    @Operation(
+        summary = "Récupérer les informations des clients d'une mission",
+        description = "Retourne, pour chaque client des demandes de la mission, ses demandes et ses informations " +
+                      "(nom, email, téléphone). Chaque client n'est demandé qu'une fois au Service Utilisateurs, " +
+                      "les appels sont faits en parallèle. Un client indisponible est renvoyé avec le champ 'erreur'.",
+        security = {@io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth")}
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Informations des clients de la mission récupérées",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = MissionClientsDTO.class))),
+        @ApiResponse(responseCode = "401", description = "Non authentifié"),
+        @ApiResponse(responseCode = "403", description = "Accès refusé")
+    })
+    @PreAuthorize("hasAnyRole('PRESTATAIRE', 'ADMIN')")
+    @GetMapping("/mission/{missionId}/clients")
+    public Mono<ResponseEntity<MissionClientsDTO>> getClientsByMission(
+            @Parameter(description = "ID de la mission", required = true)
+            @PathVariable Long missionId,
+            @RequestHeader("Authorization") String authHeader
+    ) {
+        Long userId = getCurrentUserId();
+        logger.info("Récupération des infos clients de la mission ID: {} par l'utilisateur ID: {}", missionId, userId);
+
+        return clientInfoService.getClientsByMission(missionId, authHeader)
+                .map(ResponseEntity::ok);
     }
 
     /**
@@ -318,6 +545,31 @@ public class DemandeController {
         throw new RuntimeException("Utilisateur non authentifié");
     }
 
+    /**
+     * Convertit le paramètre de statut optionnel en StatutValidation
+     */
+    private StatutValidation parseStatut(String statut) {
+        if (statut == null || statut.isBlank()) {
+            return null;
+        }
+        try {
+            return StatutValidation.valueOf(statut.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Statut de validation inconnu: " + statut);
+        }
+    }
+
+    /**
+     * Convertit le paramètre de format d'export
+     */
+    private DemandeExportService.Format parseFormat(String format) {
+        try {
+            return DemandeExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Format d'export inconnu: " + format);
+        }
+    }
+
     /**
      * Récupère le rôle de l'utilisateur actuellement authentifié
      */
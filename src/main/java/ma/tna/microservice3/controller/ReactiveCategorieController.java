@@ -0,0 +1,157 @@
+package ma.tna.microservice3.controller;
+
+import ma.tna.microservice3.dto.CategorieResponseDTO;
+import ma.tna.microservice3.dto.CategorieSuggestionDTO;
+import ma.tna.microservice3.exception.ResourceNotFoundException;
+import ma.tna.microservice3.service.CategorieCatalog;
+import ma.tna.microservice3.service.ReactiveCategorieCatalogCache;
+import ma.tna.microservice3.service.VueSerialisee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Lectures des catégories du profil "reactive" (WebFlux)
+ * Mêmes réponses que {@link CategorieController} (ETag, Last-Modified, 304, vues pré-sérialisées et gzip),
+ * servies depuis {@link ReactiveCategorieCatalogCache} ; la recherche utilise l'index en mémoire du catalogue
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/categories")
+public class ReactiveCategorieController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCategorieController.class);
+
+    private final ReactiveCategorieCatalogCache catalogCache;
+    private final CacheControl cacheControl;
+    private final double seuil;
+    private final int maxResultats;
+
+    public ReactiveCategorieController(
+            ReactiveCategorieCatalogCache catalogCache,
+            @Value("${categories.http.cache.max-age:5m}") Duration maxAge,
+            @Value("${categories.http.cache.stale-while-revalidate:1m}") Duration staleWhileRevalidate,
+            @Value("${categories.search.similarity-threshold:0.3}") double seuil,
+            @Value("${categories.search.max-results:50}") int maxResultats
+    ) {
+        this.catalogCache = catalogCache;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().staleWhileRevalidate(staleWhileRevalidate);
+        this.seuil = seuil;
+        this.maxResultats = maxResultats;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<CategorieResponseDTO>> getCategorieById(@PathVariable String id, ServerWebExchange exchange) {
+        logger.info("Récupération de la catégorie ID: {}", id);
+        return conditionnelle(exchange, catalogue -> catalogue.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Catégorie non trouvée avec l'ID: " + id)));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getAllCategories(ServerWebExchange exchange) {
+        logger.info("Récupération de toutes les catégories");
+        return serialisee(exchange, CategorieCatalog::serialiseAll);
+    }
+
+    @GetMapping("/nom/{nom}")
+    public Mono<ResponseEntity<CategorieResponseDTO>> getCategorieByNom(@PathVariable String nom, ServerWebExchange exchange) {
+        logger.info("Recherche de la catégorie par nom: {}", nom);
+        return conditionnelle(exchange, catalogue -> catalogue.findByNom(nom)
+                .orElseThrow(() -> new ResourceNotFoundException("Catégorie non trouvée avec le nom: " + nom)));
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<CategorieResponseDTO>>> searchCategories(@RequestParam String keyword,
+                                                                             ServerWebExchange exchange) {
+        logger.info("Recherche de catégories avec mot-clé: {}", keyword);
+        return conditionnelle(exchange, catalogue -> catalogue.rechercher(keyword, seuil, maxResultats));
+    }
+
+    @GetMapping("/autocomplete")
+    public Mono<ResponseEntity<List<CategorieSuggestionDTO>>> autocompleterCategories(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit,
+            ServerWebExchange exchange
+    ) {
+        int limite = Math.min(Math.max(1, limit), maxResultats);
+        return conditionnelle(exchange, catalogue -> catalogue.autocompleter(prefix, limite).stream()
+                .map(categorie -> new CategorieSuggestionDTO(categorie.idCategorie(), categorie.nom()))
+                .toList());
+    }
+
+    @GetMapping("/filter/fragile")
+    public Mono<ResponseEntity<byte[]>> getCategoriesByFragile(@RequestParam Boolean fragile, ServerWebExchange exchange) {
+        logger.info("Filtrage des catégories par fragilité: {}", fragile);
+        return serialisee(exchange, catalogue -> catalogue.serialiseByFragile(fragile));
+    }
+
+    @GetMapping("/filter/dangereux")
+    public Mono<ResponseEntity<byte[]>> getCategoriesByDangereux(@RequestParam Boolean dangereux, ServerWebExchange exchange) {
+        logger.info("Filtrage des catégories par dangerosité: {}", dangereux);
+        return serialisee(exchange, catalogue -> catalogue.serialiseByDangereux(dangereux));
+    }
+
+    @GetMapping("/filter/temperature")
+    public Mono<ResponseEntity<byte[]>> getCategoriesByTemperature(@RequestParam String temperature,
+                                                                   ServerWebExchange exchange) {
+        logger.info("Filtrage des catégories par température: {}", temperature);
+        return serialisee(exchange, catalogue -> catalogue.serialiseByTemperature(temperature));
+    }
+
+    /**
+     * Réponse conditionnelle sur la version du catalogue (voir CategorieController)
+     */
+    private <T> Mono<ResponseEntity<T>> conditionnelle(ServerWebExchange exchange, Function<CategorieCatalog, T> lecture) {
+        return catalogCache.catalog().map(catalogue -> {
+            if (exchange.checkNotModified(catalogue.etag(), catalogue.derniereModification())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).<T>build();
+            }
+            return ResponseEntity.ok().cacheControl(cacheControl).body(lecture.apply(catalogue));
+        });
+    }
+
+    /**
+     * Réponse conditionnelle servie depuis une vue pré-sérialisée du catalogue (voir CategorieController)
+     */
+    private Mono<ResponseEntity<byte[]>> serialisee(ServerWebExchange exchange, Function<CategorieCatalog, VueSerialisee> vue) {
+        return catalogCache.catalog().map(catalogue -> {
+            VueSerialisee serialisee = vue.apply(catalogue);
+            boolean gzip = serialisee.gzip() != null && CategorieController.accepteGzip(
+                    exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+            String etag = gzip ? CategorieController.etagGzip(catalogue.etag()) : catalogue.etag();
+
+            if (exchange.checkNotModified(etag, catalogue.derniereModification())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .cacheControl(cacheControl)
+                        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+
+            ResponseEntity.BodyBuilder reponse = ResponseEntity.ok()
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .contentType(MediaType.APPLICATION_JSON);
+            if (gzip) {
+                return reponse.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serialisee.gzip());
+            }
+            return reponse.body(serialisee.json());
+        });
+    }
+}
@@ -0,0 +1,177 @@
+package ma.tna.microservice3.controller;
+
+import ma.tna.microservice3.dto.ClientInfoDTO;
+import ma.tna.microservice3.dto.DemandePageDTO;
+import ma.tna.microservice3.dto.DemandeResponseDTO;
+import ma.tna.microservice3.dto.DemandeSearchCriteria;
+import ma.tna.microservice3.dto.MissionClientsDTO;
+import ma.tna.microservice3.exception.BadRequestException;
+import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.service.DemandeExportService;
+import ma.tna.microservice3.service.ReactiveDemandeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lectures des demandes du profil "reactive" (WebFlux + R2DBC)
+ * Mêmes routes, règles d'accès et réponses que {@link DemandeController} pour les lectures ;
+ * les écritures ne sont pas servies par ce profil
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/demandes")
+public class ReactiveDemandeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveDemandeController.class);
+
+    private final ReactiveDemandeService demandeService;
+
+    public ReactiveDemandeController(ReactiveDemandeService demandeService) {
+        this.demandeService = demandeService;
+    }
+
+    @GetMapping
+    public Flux<DemandeResponseDTO> getMesDemandesClient(Authentication authentication) {
+        return demandeService.getDemandesByClient(getUserId(authentication));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/admin/all")
+    public Flux<DemandeResponseDTO> getAllDemandes(Authentication authentication) {
+        logger.info("Récupération de TOUTES les demandes par l'admin ID: {}", getUserId(authentication));
+        return demandeService.getAllDemandes();
+    }
+
+    /**
+     * Export en flux (Admin) : les lignes sont émises au fil de la lecture R2DBC, au rythme du client
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/admin/export")
+    public Mono<ResponseEntity<Flux<String>>> exporterDemandes(
+            @RequestParam(defaultValue = "ndjson") String format,
+            Authentication authentication
+    ) {
+        DemandeExportService.Format exportFormat;
+        try {
+            exportFormat = DemandeExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new BadRequestException("Format d'export inconnu: " + format));
+        }
+        logger.info("Export des demandes au format {} par l'admin ID: {}", exportFormat, getUserId(authentication));
+
+        return Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"demandes." + exportFormat.getExtension() + "\"")
+                .body(demandeService.exporter(exportFormat)));
+    }
+
+    @PreAuthorize("hasAnyRole('PRESTATAIRE', 'ADMIN')")
+    @GetMapping("/mission/{missionId}")
+    public Flux<DemandeResponseDTO> getDemandesByMission(@PathVariable Long missionId) {
+        return demandeService.getDemandesByMission(missionId);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/admin/statut/{statut}")
+    public Flux<DemandeResponseDTO> getDemandesByStatut(@PathVariable String statut) {
+        return demandeService.getDemandesByStatut(statut);
+    }
+
+    @GetMapping("/search")
+    public Mono<DemandePageDTO> rechercherDemandes(
+            @RequestParam(required = false) String statut,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Long missionId,
+            @RequestParam(required = false) String categorieId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime creeApres,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime creeAvant,
+            @RequestParam(required = false) String villeDepart,
+            @RequestParam(required = false) String villeDestination,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication
+    ) {
+        StatutValidation statutValidation;
+        try {
+            statutValidation = statut == null || statut.isBlank() ? null : StatutValidation.valueOf(statut.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new BadRequestException("Statut de validation inconnu: " + statut));
+        }
+
+        DemandeSearchCriteria criteria = new DemandeSearchCriteria(
+                statutValidation, clientId, missionId, categorieId,
+                creeApres, creeAvant, villeDepart, villeDestination);
+
+        return demandeService.rechercherDemandes(criteria, cursor, size, getUserId(authentication), getRole(authentication));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<DemandeResponseDTO>> getDemandeById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication authentication
+    ) {
+        return demandeService.getDemandeSiModifiee(id, getUserId(authentication), getRole(authentication), ifNoneMatch)
+                .map(lue -> lue.estModifiee()
+                        ? ResponseEntity.ok().eTag(lue.etag()).body(lue.demande())
+                        : ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(lue.etag()).build());
+    }
+
+    @GetMapping("/{id}/client")
+    public Mono<ResponseEntity<ClientInfoDTO>> getClientInfoByDemande(
+            @PathVariable Long id,
+            @RequestHeader("Authorization") String authHeader,
+            Authentication authentication
+    ) {
+        return demandeService.getClientInfoByDemande(id, getUserId(authentication), getRole(authentication), authHeader)
+                .map(ResponseEntity::ok);
+    }
+
+    @PreAuthorize("hasAnyRole('PRESTATAIRE', 'ADMIN')")
+    @GetMapping("/mission/{missionId}/clients")
+    public Mono<ResponseEntity<MissionClientsDTO>> getClientsByMission(
+            @PathVariable Long missionId,
+            @RequestHeader("Authorization") String authHeader
+    ) {
+        return demandeService.getClientsByMission(missionId, authHeader)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * ID de l'utilisateur authentifié (principal posé par JwtAuthWebFilter)
+     */
+    private static Long getUserId(Authentication authentication) {
+        return (Long) authentication.getPrincipal();
+    }
+
+    /**
+     * Rôle de l'utilisateur authentifié, sans le préfixe ROLE_
+     */
+    private static String getRole(Authentication authentication) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String role = authority.getAuthority();
+            return role.startsWith("ROLE_") ? role.substring(5) : role;
+        }
+        return "CLIENT";
+    }
+}
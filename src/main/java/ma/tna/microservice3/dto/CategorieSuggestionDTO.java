@@ -0,0 +1,16 @@
+package ma.tna.microservice3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO allégé pour l'autocomplétion des catégories (appelé à chaque frappe)
+ */
+@Schema(description = "Suggestion de catégorie pour l'autocomplétion")
+public record CategorieSuggestionDTO(
+        @Schema(description = "Identifiant unique de la catégorie (UUID)", example = "550e8400-e29b-41d4-a716-446655440000")
+        String idCategorie,
+
+        @Schema(description = "Nom de la catégorie", example = "Électroménager")
+        String nom
+) {
+}
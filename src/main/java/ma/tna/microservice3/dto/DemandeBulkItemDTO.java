@@ -0,0 +1,35 @@
+package ma.tna.microservice3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO pour le résultat de la création d'un élément d'un lot de demandes
+ */
+@Schema(description = "Résultat de la création d'un élément du lot")
+public record DemandeBulkItemDTO(
+        @Schema(description = "Position de l'élément dans le lot (à partir de 0)", example = "0")
+        int index,
+
+        @Schema(description = "Résultat de la création", example = "CREEE", allowableValues = {"CREEE", "REJETEE"})
+        String statut,
+
+        @Schema(description = "Demande créée (null si rejetée)", nullable = true)
+        DemandeResponseDTO demande,
+
+        @Schema(description = "Erreurs de validation (vide si créée)", example = "[\"volume: Le volume doit être positif\"]")
+        List<String> erreurs
+) {
+
+    public static final String CREEE = "CREEE";
+    public static final String REJETEE = "REJETEE";
+
+    public static DemandeBulkItemDTO creee(int index, DemandeResponseDTO demande) {
+        return new DemandeBulkItemDTO(index, CREEE, demande, List.of());
+    }
+
+    public static DemandeBulkItemDTO rejetee(int index, List<String> erreurs) {
+        return new DemandeBulkItemDTO(index, REJETEE, null, erreurs);
+    }
+}
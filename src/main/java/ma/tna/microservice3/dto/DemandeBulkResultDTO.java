@@ -0,0 +1,24 @@
+package ma.tna.microservice3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO pour le résultat de la création d'un lot de demandes
+ */
+@Schema(description = "Résultat de la création d'un lot de demandes, élément par élément")
+public record DemandeBulkResultDTO(
+        @Schema(description = "Nombre d'éléments reçus", example = "3")
+        int total,
+
+        @Schema(description = "Nombre de demandes créées", example = "2")
+        int creees,
+
+        @Schema(description = "Nombre d'éléments rejetés", example = "1")
+        int rejetees,
+
+        @Schema(description = "Résultats dans l'ordre du lot")
+        List<DemandeBulkItemDTO> resultats
+) {
+}
@@ -0,0 +1,25 @@
+package ma.tna.microservice3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO pour une page de demandes obtenue par pagination par curseur (keyset)
+ */
+@Schema(description = "Page de demandes avec curseur de continuation")
+public record DemandePageDTO(
+        @Schema(description = "Demandes de la page, triées par date de création décroissante")
+        List<DemandeResponseDTO> content,
+
+        @Schema(description = "Nombre d'éléments dans la page", example = "20")
+        int size,
+
+        @Schema(description = "Indique s'il existe une page suivante", example = "true")
+        boolean hasNext,
+
+        @Schema(description = "Curseur opaque à repasser dans le paramètre 'cursor' pour obtenir la page suivante",
+                example = "MjAyNS0xMS0yNlQxMDozMDowMHw0Mg", nullable = true)
+        String nextCursor
+) {
+}
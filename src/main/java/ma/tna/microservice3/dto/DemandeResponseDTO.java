@@ -40,6 +40,9 @@ public record DemandeResponseDTO(
         @Schema(description = "Devis estimé en MAD", example = "1500.00")
         BigDecimal devisEstime,
 
+        @Schema(description = "État du calcul du devis", example = "CALCULE", allowableValues = {"EN_ATTENTE", "CALCULE", "PAR_DEFAUT"})
+        String statutDevis,
+
         @Schema(description = "ID de l'itinéraire associé (UUID du service Itinéraires)", example = "550e8400-e29b-41d4-a716-446655440000", nullable = true)
         String itineraireAssocieId,
 
@@ -53,7 +56,10 @@ public record DemandeResponseDTO(
         LocalDateTime dateCreation,
 
         @Schema(description = "Date de dernière modification", example = "2025-11-26T14:45:00")
-        LocalDateTime dateModification
+        LocalDateTime dateModification,
+
+        @Schema(description = "Version de la demande, incrémentée à chaque modification (voir l'en-tête ETag)", example = "3")
+        Long version
 ) {
 }
 
@@ -0,0 +1,29 @@
+package ma.tna.microservice3.dto;
+
+import ma.tna.microservice3.model.StatutValidation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Critères de recherche combinables pour la liste paginée des demandes
+ * Tous les critères sont optionnels (null = pas de filtre)
+ */
+public record DemandeSearchCriteria(
+        StatutValidation statut,
+        Long clientId,
+        Long missionId,
+        String categorieId,
+        LocalDateTime creeApres,
+        LocalDateTime creeAvant,
+        String villeDepart,
+        String villeDestination
+) {
+
+    /**
+     * Retourne une copie des critères restreinte à un client donné
+     */
+    public DemandeSearchCriteria pourClient(Long clientIdImpose) {
+        return new DemandeSearchCriteria(statut, clientIdImpose, missionId, categorieId,
+                creeApres, creeAvant, villeDepart, villeDestination);
+    }
+}
@@ -0,0 +1,25 @@
+package ma.tna.microservice3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO d'un client d'une mission avec ses demandes
+ */
+@Schema(description = "Client d'une mission et ses demandes")
+public record MissionClientDTO(
+        @Schema(description = "ID du client", example = "42")
+        Long clientId,
+
+        @Schema(description = "IDs des demandes du client dans la mission", example = "[1, 5]")
+        List<Long> demandeIds,
+
+        @Schema(description = "Informations du client (absentes si le Service Utilisateurs n'a pas pu les fournir)", nullable = true)
+        ClientInfoDTO client,
+
+        @Schema(description = "Raison de l'absence des informations du client", nullable = true,
+                example = "Client non trouvé dans le Service Utilisateurs, ID: 42")
+        String erreur
+) {
+}
@@ -0,0 +1,21 @@
+package ma.tna.microservice3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO des clients d'une mission (un élément par client, quel que soit le nombre de ses demandes)
+ */
+@Schema(description = "Clients des demandes d'une mission")
+public record MissionClientsDTO(
+        @Schema(description = "ID de la mission", example = "3")
+        Long missionId,
+
+        @Schema(description = "Nombre de demandes de la mission", example = "12")
+        int totalDemandes,
+
+        @Schema(description = "Clients de la mission, dans l'ordre de leur première demande")
+        List<MissionClientDTO> clients
+) {
+}
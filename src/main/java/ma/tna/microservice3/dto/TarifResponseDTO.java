@@ -17,7 +17,10 @@ public record TarifResponseDTO(
         String description,
 
         @Schema(description = "ID de l'itinéraire associé (UUID)", example = "550e8400-e29b-41d4-a716-446655440000", nullable = true)
-        String itineraireId
+        String itineraireId,
+
+        @Schema(description = "Version de la grille tarifaire ayant produit le tarif", example = "2026.1", nullable = true)
+        String version
 ) {
 }
 
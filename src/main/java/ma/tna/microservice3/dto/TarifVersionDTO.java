@@ -0,0 +1,12 @@
+package ma.tna.microservice3.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * DTO pour la version des tarifs en vigueur du service Tarification (GET /version)
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TarifVersionDTO(
+        String version
+) {
+}
@@ -0,0 +1,27 @@
+package ma.tna.microservice3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.List;
+
+/**
+ * DTO pour un changement de statut en masse
+ * Les demandes sont sélectionnées par exactement un des critères : ids, missionId ou filtre
+ */
+@Schema(description = "Changement de statut appliqué à un ensemble de demandes")
+public record TransitionStatutRequestDTO(
+        @Schema(description = "Nouveau statut de validation", example = "TERMINEE", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotBlank(message = "Le nouveau statut est obligatoire")
+        String nouveauStatut,
+
+        @Schema(description = "IDs des demandes à modifier", example = "[12, 13, 14]", nullable = true)
+        List<Long> ids,
+
+        @Schema(description = "ID de la mission dont toutes les demandes sont à modifier", example = "3", nullable = true)
+        Long missionId,
+
+        @Schema(description = "Filtre de sélection (mêmes critères que /search)", nullable = true)
+        DemandeSearchCriteria filtre
+) {
+}
@@ -0,0 +1,25 @@
+package ma.tna.microservice3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO pour le résultat d'un changement de statut en masse
+ */
+@Schema(description = "Résultat d'un changement de statut en masse")
+public record TransitionStatutResultDTO(
+        @Schema(description = "Nouveau statut appliqué", example = "TERMINEE")
+        String nouveauStatut,
+
+        @Schema(description = "Nombre de demandes modifiées", example = "2")
+        int modifiees,
+
+        @Schema(description = "IDs des demandes modifiées", example = "[12, 13]")
+        List<Long> demandeIds,
+
+        @Schema(description = "IDs demandés mais non modifiés (inexistants ou transition non autorisée), "
+                + "uniquement pour une sélection par IDs", example = "[14]")
+        List<Long> ignorees
+) {
+}
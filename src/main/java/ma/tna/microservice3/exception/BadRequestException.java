@@ -0,0 +1,15 @@
+package ma.tna.microservice3.exception;
+
+/**
+ * Exception levée lorsqu'un paramètre de requête est invalide
+ */
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
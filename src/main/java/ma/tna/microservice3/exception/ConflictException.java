@@ -0,0 +1,16 @@
+package ma.tna.microservice3.exception;
+
+/**
+ * Exception levée lorsqu'une modification entre en conflit avec l'état actuel de la ressource
+ * (transition de statut non autorisée, modification concurrente)
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
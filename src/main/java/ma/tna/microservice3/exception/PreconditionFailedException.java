@@ -0,0 +1,11 @@
+package ma.tna.microservice3.exception;
+
+/**
+ * Exception levée lorsque la précondition d'une requête conditionnelle (If-Match) n'est pas remplie
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -3,6 +3,7 @@ package ma.tna.microservice3.mapper;
 import ma.tna.microservice3.dto.CategorieRequestDTO;
 import ma.tna.microservice3.dto.CategorieResponseDTO;
 import ma.tna.microservice3.model.Categorie;
+import ma.tna.microservice3.repository.reactive.CategorieLigne;
 import org.springframework.stereotype.Component;
 
 /**
@@ -44,6 +45,24 @@ public class CategorieMapper {
         );
     }
 
+    /**
+     * Convertit une ligne lue par R2DBC (profil "reactive") en CategorieResponseDTO
+     */
+    public CategorieResponseDTO toResponseDTO(CategorieLigne ligne) {
+        return new CategorieResponseDTO(
+                ligne.idCategorie(),
+                ligne.nom(),
+                ligne.description(),
+                ligne.densiteMoyenne(),
+                ligne.fragile(),
+                ligne.dangereux(),
+                ligne.temperatureRequise(),
+                ligne.restrictions(),
+                ligne.dateCreation(),
+                ligne.dateModification()
+        );
+    }
+
     /**
      * Met à jour une entité Categorie à partir d'un DTO
      */
@@ -5,6 +5,8 @@ import ma.tna.microservice3.dto.DemandeRequestDTO;
 import ma.tna.microservice3.dto.DemandeResponseDTO;
 import ma.tna.microservice3.model.Demande;
 import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.repository.projection.DemandeView;
+import ma.tna.microservice3.repository.reactive.DemandeLigne;
 import org.springframework.stereotype.Component;
 
 /**
@@ -44,6 +46,14 @@ public class DemandeMapper {
             categorieDTO = categorieMapper.toResponseDTO(demande.getCategorie());
         }
 
+        return toResponseDTO(demande, categorieDTO);
+    }
+
+    /**
+     * Convertit une entité Demande en DemandeResponseDTO avec une catégorie déjà convertie
+     * (évite d'initialiser la référence paresseuse vers la catégorie)
+     */
+    public DemandeResponseDTO toResponseDTO(Demande demande, CategorieResponseDTO categorieDTO) {
         return new DemandeResponseDTO(
                 demande.getId(),
                 demande.getClientId(),
@@ -55,12 +65,80 @@ public class DemandeMapper {
                 demande.getVilleDestination(),
                 demande.getStatutValidation().name(),
                 demande.getDevisEstime(),
+                demande.getStatutDevis().name(),
                 demande.getItineraireAssocieId(),
                 demande.getMissionId(),
                 categorieDTO,
                 demande.getDateCreation(),
-                demande.getDateModification()
+                demande.getDateModification(),
+                demande.getVersion()
+        );
+    }
+
+    /**
+     * Convertit une projection DemandeView en DemandeResponseDTO
+     */
+    public DemandeResponseDTO toResponseDTO(DemandeView view) {
+        CategorieResponseDTO categorieDTO = null;
+        if (view.categorieId() != null) {
+            categorieDTO = new CategorieResponseDTO(
+                    view.categorieId(),
+                    view.categorieNom(),
+                    view.categorieDescription(),
+                    view.categorieDensiteMoyenne(),
+                    view.categorieFragile(),
+                    view.categorieDangereux(),
+                    view.categorieTemperatureRequise(),
+                    view.categorieRestrictions(),
+                    view.categorieDateCreation(),
+                    view.categorieDateModification()
+            );
+        }
+
+        return new DemandeResponseDTO(
+                view.id(),
+                view.clientId(),
+                view.volume(),
+                view.poids(),
+                view.natureMarchandise(),
+                view.dateDepart(),
+                view.villeDepart(),
+                view.villeDestination(),
+                view.statutValidation().name(),
+                view.devisEstime(),
+                view.statutDevis().name(),
+                view.itineraireAssocieId(),
+                view.missionId(),
+                categorieDTO,
+                view.dateCreation(),
+                view.dateModification(),
+                view.version()
         );
     }
-}
 
+    /**
+     * Convertit une ligne lue par R2DBC (profil "reactive") en DemandeResponseDTO
+     * @param categorieDTO La catégorie résolue depuis le catalogue (null si aucune)
+     */
+    public DemandeResponseDTO toResponseDTO(DemandeLigne ligne, CategorieResponseDTO categorieDTO) {
+        return new DemandeResponseDTO(
+                ligne.id(),
+                ligne.clientId(),
+                ligne.volume(),
+                ligne.poids(),
+                ligne.natureMarchandise(),
+                ligne.dateDepart(),
+                ligne.villeDepart(),
+                ligne.villeDestination(),
+                ligne.statutValidation().name(),
+                ligne.devisEstime(),
+                ligne.statutDevis().name(),
+                ligne.itineraireAssocieId(),
+                ligne.missionId(),
+                categorieDTO,
+                ligne.dateCreation(),
+                ligne.dateModification(),
+                ligne.version()
+        );
+    }
+}
@@ -7,6 +7,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -22,8 +24,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Demande {
 
+    /**
+     * Identifiant alloué par la séquence demandes_id_seq (par blocs de 50, sans aller-retour par insertion)
+     * Contrairement à IDENTITY, permet à Hibernate de grouper les INSERT (hibernate.jdbc.batch_size)
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "demandes_seq")
+    @SequenceGenerator(name = "demandes_seq", sequenceName = "demandes_id_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -75,9 +82,10 @@ public class Demande {
     private String villeDestination;
 
     /**
-     * Statut de validation de la demande
+     * Statut de validation de la demande (colonne VARCHAR, comme dans schema.sql)
      */
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
     @Column(nullable = false, length = 50)
     @Builder.Default
     private StatutValidation statutValidation = StatutValidation.EN_ATTENTE_CLIENT;
@@ -107,6 +115,15 @@ public class Demande {
     @Column(precision = 10, scale = 2)
     private BigDecimal devisEstime;
 
+    /**
+     * État du calcul du devis (calculé en arrière-plan après la création)
+     */
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private StatutDevis statutDevis = StatutDevis.EN_ATTENTE;
+
     /**
      * Date de création de la demande
      */
@@ -121,6 +138,14 @@ public class Demande {
     @Builder.Default
     private LocalDateTime dateModification = LocalDateTime.now();
 
+    /**
+     * Version de la ligne (verrouillage optimiste), incrémentée à chaque modification
+     * Laissée à null à la création : Spring Data s'en sert pour distinguer persist et merge
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PreUpdate
     protected void onUpdate() {
         dateModification = LocalDateTime.now();
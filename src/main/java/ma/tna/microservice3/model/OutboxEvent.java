@@ -0,0 +1,98 @@
+package ma.tna.microservice3.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entité JPA représentant un événement à livrer à un autre microservice (transactional outbox)
+ * L'événement est écrit dans la même transaction que la modification métier,
+ * puis livré en arrière-plan par {@code OutboxDispatcher} (au moins une fois)
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Type de l'événement (détermine le service destinataire)
+     */
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private TypeEvenement type;
+
+    /**
+     * ID de la demande concernée
+     */
+    @Column
+    private Long demandeId;
+
+    /**
+     * Corps JSON envoyé au service destinataire
+     */
+    @NotNull
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /**
+     * État de livraison
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private StatutEvenement statut = StatutEvenement.EN_ATTENTE;
+
+    /**
+     * Nombre de tentatives de livraison effectuées
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private int tentatives = 0;
+
+    /**
+     * Date à partir de laquelle l'événement peut être (re)livré
+     */
+    @Column(nullable = false)
+    private LocalDateTime prochainEssai;
+
+    /**
+     * Message de la dernière erreur de livraison
+     */
+    @Column(length = 500)
+    private String derniereErreur;
+
+    /**
+     * Date de création de l'événement
+     */
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime dateCreation;
+
+    /**
+     * Date de livraison
+     */
+    @Column
+    private LocalDateTime dateEnvoi;
+
+    @PrePersist
+    protected void onCreate() {
+        if (dateCreation == null) {
+            dateCreation = LocalDateTime.now();
+        }
+        if (prochainEssai == null) {
+            prochainEssai = dateCreation;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ma.tna.microservice3.model;
+
+/**
+ * Énumération représentant l'état du calcul du devis d'une demande de transport
+ * Le devis est calculé en arrière-plan après la création de la demande
+ */
+public enum StatutDevis {
+    /**
+     * Demande créée, devis en cours de calcul
+     */
+    EN_ATTENTE,
+
+    /**
+     * Devis calculé par le service Tarification (ou par la grille tarifaire locale en mode local)
+     */
+    CALCULE,
+
+    /**
+     * Service Tarification indisponible, devis estimé par la grille tarifaire locale
+     */
+    PAR_DEFAUT
+}
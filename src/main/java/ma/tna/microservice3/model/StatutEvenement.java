@@ -0,0 +1,21 @@
+package ma.tna.microservice3.model;
+
+/**
+ * Énumération représentant l'état de livraison d'un événement outbox
+ */
+public enum StatutEvenement {
+    /**
+     * Événement à livrer (ou en attente d'un nouvel essai)
+     */
+    EN_ATTENTE,
+
+    /**
+     * Événement livré au service destinataire
+     */
+    ENVOYE,
+
+    /**
+     * Nombre maximal de tentatives atteint, livraison abandonnée
+     */
+    ECHEC
+}
@@ -0,0 +1,58 @@
+package ma.tna.microservice3.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transitions autorisées entre les statuts de validation d'une demande
+ * EN_ATTENTE_CLIENT → VALIDEE_CLIENT → VALIDEE_PRESTATAIRE → TERMINEE,
+ * ANNULEE depuis tout statut non terminal ; TERMINEE et ANNULEE sont terminaux
+ */
+public final class StatutTransitions {
+
+    private static final Map<StatutValidation, Set<StatutValidation>> SUIVANTS = new EnumMap<>(StatutValidation.class);
+    private static final Map<StatutValidation, Set<StatutValidation>> PRECEDENTS = new EnumMap<>(StatutValidation.class);
+
+    static {
+        SUIVANTS.put(StatutValidation.EN_ATTENTE_CLIENT,
+                EnumSet.of(StatutValidation.VALIDEE_CLIENT, StatutValidation.ANNULEE));
+        SUIVANTS.put(StatutValidation.VALIDEE_CLIENT,
+                EnumSet.of(StatutValidation.VALIDEE_PRESTATAIRE, StatutValidation.ANNULEE));
+        SUIVANTS.put(StatutValidation.VALIDEE_PRESTATAIRE,
+                EnumSet.of(StatutValidation.TERMINEE, StatutValidation.ANNULEE));
+        SUIVANTS.put(StatutValidation.TERMINEE, EnumSet.noneOf(StatutValidation.class));
+        SUIVANTS.put(StatutValidation.ANNULEE, EnumSet.noneOf(StatutValidation.class));
+
+        for (StatutValidation statut : StatutValidation.values()) {
+            PRECEDENTS.put(statut, EnumSet.noneOf(StatutValidation.class));
+        }
+        SUIVANTS.forEach((source, cibles) -> cibles.forEach(cible -> PRECEDENTS.get(cible).add(source)));
+    }
+
+    private StatutTransitions() {
+    }
+
+    /**
+     * Indique si une demande peut passer d'un statut à un autre
+     */
+    public static boolean estAutorisee(StatutValidation source, StatutValidation cible) {
+        return SUIVANTS.get(source).contains(cible);
+    }
+
+    /**
+     * Statuts accessibles depuis un statut donné
+     */
+    public static Set<StatutValidation> suivants(StatutValidation source) {
+        return Collections.unmodifiableSet(SUIVANTS.get(source));
+    }
+
+    /**
+     * Statuts depuis lesquels une demande peut passer au statut cible (garde des mises à jour en masse)
+     */
+    public static Set<StatutValidation> precedents(StatutValidation cible) {
+        return Collections.unmodifiableSet(PRECEDENTS.get(cible));
+    }
+}
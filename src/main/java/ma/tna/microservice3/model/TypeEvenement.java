@@ -0,0 +1,16 @@
+package ma.tna.microservice3.model;
+
+/**
+ * Énumération des types d'événements publiés via la table outbox
+ */
+public enum TypeEvenement {
+    /**
+     * Demande validée par le client : notification du service Matching
+     */
+    DEMANDE_VALIDEE,
+
+    /**
+     * Changement de statut en masse : un seul événement pour toutes les demandes modifiées
+     */
+    DEMANDES_STATUT_MODIFIE
+}
@@ -2,6 +2,8 @@ package ma.tna.microservice3.repository;
 
 import ma.tna.microservice3.model.Categorie;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -49,9 +51,33 @@ public interface CategorieRepository extends JpaRepository<Categorie, String> {
     List<Categorie> findByTemperatureRequise(String temperatureRequise);
 
     /**
-     * Recherche les catégories contenant un mot-clé dans le nom
-     * @param keyword Le mot-clé
-     * @return Liste des catégories correspondantes
+     * Recherche par similarité sur le nom, insensible à la casse et aux accents (PostgreSQL, migration_v8.sql)
+     * Les deux conditions utilisent l'index GIN idx_categories_nom_trgm ; l'opérateur % applique
+     * le seuil pg_trgm.similarity_threshold (0.3 par défaut)
+     * @param texte Le texte recherché
+     * @param motif Le texte échappé pour LIKE (\, % et _ précédés de \)
+     * @param limite Le nombre maximal de résultats
+     * @return Les IDs des catégories, les plus similaires en premier
+     */
+    @Query(value = "SELECT c.id_categorie FROM categories c "
+            + "WHERE lower(f_unaccent(c.nom)) LIKE '%' || lower(f_unaccent(:motif)) || '%' "
+            + "OR lower(f_unaccent(c.nom)) % lower(f_unaccent(:texte)) "
+            + "ORDER BY similarity(lower(f_unaccent(c.nom)), lower(f_unaccent(:texte))) DESC, c.nom "
+            + "LIMIT :limite", nativeQuery = true)
+    List<String> rechercherIdsParSimilarite(@Param("texte") String texte,
+                                            @Param("motif") String motif,
+                                            @Param("limite") int limite);
+
+    /**
+     * Catégories dont le nom, ou l'un de ses mots, commence par le préfixe (PostgreSQL, migration_v8.sql)
+     * @param motif Le préfixe échappé pour LIKE
+     * @param limite Le nombre maximal de résultats
+     * @return Les IDs des catégories : noms commençant par le préfixe d'abord, puis les plus courts
      */
-    List<Categorie> findByNomContainingIgnoreCase(String keyword);
+    @Query(value = "SELECT c.id_categorie FROM categories c "
+            + "WHERE lower(f_unaccent(c.nom)) LIKE lower(f_unaccent(:motif)) || '%' "
+            + "OR lower(f_unaccent(c.nom)) LIKE '% ' || lower(f_unaccent(:motif)) || '%' "
+            + "ORDER BY (lower(f_unaccent(c.nom)) LIKE lower(f_unaccent(:motif)) || '%') DESC, length(c.nom), c.nom "
+            + "LIMIT :limite", nativeQuery = true)
+    List<String> autocompleterIds(@Param("motif") String motif, @Param("limite") int limite);
 }
@@ -1,45 +1,171 @@
 package ma.tna.microservice3.repository;
 
+import jakarta.persistence.QueryHint;
 import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.model.StatutDevis;
 import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.repository.projection.DemandeClient;
+import ma.tna.microservice3.repository.projection.DemandeView;
+import ma.tna.microservice3.repository.projection.DevisEnAttente;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository pour la gestion des demandes de transport
+ * Les recherches combinées passent par {@link DemandeSpecifications}
+ * Les listes sont lues par projections (DemandeView) ; les méthodes renvoyant des entités chargent
+ * la catégorie par jointure pour éviter un SELECT supplémentaire par demande lors du mapping
  */
 @Repository
-public interface DemandeRepository extends JpaRepository<Demande, Long> {
+public interface DemandeRepository extends JpaRepository<Demande, Long>, JpaSpecificationExecutor<Demande>,
+        DemandeTransitionRepository {
 
     /**
-     * Recherche toutes les demandes d'un client
-     * @param clientId L'identifiant du client
-     * @return Liste des demandes du client
+     * Sélection des colonnes nécessaires à DemandeResponseDTO, catégorie jointe en une seule requête
+     */
+    String DEMANDE_VIEW_SELECT = "SELECT new ma.tna.microservice3.repository.projection.DemandeView("
+            + "d.id, d.clientId, d.volume, d.poids, d.natureMarchandise, d.dateDepart, d.villeDepart, "
+            + "d.villeDestination, d.statutValidation, d.devisEstime, d.statutDevis, d.itineraireAssocieId, "
+            + "d.missionId, "
+            + "c.idCategorie, c.nom, c.description, c.densiteMoyenne, c.fragile, c.dangereux, "
+            + "c.temperatureRequise, c.restrictions, c.dateCreation, c.dateModification, "
+            + "d.dateCreation, d.dateModification, d.version) "
+            + "FROM Demande d LEFT JOIN d.categorie c ";
+
+    String DEMANDE_VIEW_ORDER = " ORDER BY d.dateCreation DESC, d.id DESC";
+
+    /**
+     * Recherche une demande par son ID, catégorie chargée dans la même requête
+     * @param id L'identifiant de la demande
+     * @return La demande
      */
-    List<Demande> findByClientId(Long clientId);
+    @Override
+    @EntityGraph(attributePaths = "categorie")
+    Optional<Demande> findById(Long id);
 
     /**
-     * Recherche les demandes par statut de validation
-     * @param statutValidation Le statut de validation recherché
-     * @return Liste des demandes avec ce statut
+     * Parcourt toutes les demandes via un curseur JDBC en lecture seule (export)
+     * Doit être consommé dans une transaction et le Stream doit être fermé
+     * @return Stream des demandes, catégorie chargée, triées par ID
      */
-    List<Demande> findByStatutValidation(StatutValidation statutValidation);
+    @Query("SELECT d FROM Demande d LEFT JOIN FETCH d.categorie ORDER BY d.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<Demande> streamAll();
+
+    // ============ Projections en lecture seule (sans hydratation d'entités) ============
 
     /**
-     * Recherche les demandes d'un client avec un statut spécifique
+     * Projection d'une demande par son ID
+     * @param id L'identifiant de la demande
+     * @return La projection de la demande
+     */
+    @Query(DEMANDE_VIEW_SELECT + "WHERE d.id = :id")
+    Optional<DemandeView> findViewById(@Param("id") Long id);
+
+    /**
+     * Projections des demandes d'un client, les plus récentes en premier
      * @param clientId L'identifiant du client
+     * @return Liste des projections
+     */
+    @Query(DEMANDE_VIEW_SELECT + "WHERE d.clientId = :clientId" + DEMANDE_VIEW_ORDER)
+    List<DemandeView> findViewsByClientId(@Param("clientId") Long clientId);
+
+    /**
+     * Projections des demandes ayant un statut donné, les plus récentes en premier
      * @param statutValidation Le statut de validation
-     * @return Liste des demandes correspondantes
+     * @return Liste des projections
      */
-    List<Demande> findByClientIdAndStatutValidation(Long clientId, StatutValidation statutValidation);
+    @Query(DEMANDE_VIEW_SELECT + "WHERE d.statutValidation = :statut" + DEMANDE_VIEW_ORDER)
+    List<DemandeView> findViewsByStatutValidation(@Param("statut") StatutValidation statutValidation);
 
     /**
-     * Recherche les demandes par ID de mission
+     * Projections des demandes d'une mission, les plus récentes en premier
      * @param missionId L'identifiant de la mission
-     * @return Liste des demandes de cette mission
+     * @return Liste des projections
      */
-    List<Demande> findByMissionId(Long missionId);
-}
+    @Query(DEMANDE_VIEW_SELECT + "WHERE d.missionId = :missionId" + DEMANDE_VIEW_ORDER)
+    List<DemandeView> findViewsByMissionId(@Param("missionId") Long missionId);
+
+    /**
+     * Clients des demandes d'une mission, par ordre de création
+     * @param missionId L'identifiant de la mission
+     * @return Liste des couples (demande, client)
+     */
+    @Query("SELECT new ma.tna.microservice3.repository.projection.DemandeClient(d.id, d.clientId) "
+            + "FROM Demande d WHERE d.missionId = :missionId ORDER BY d.id")
+    List<DemandeClient> findClientsByMissionId(@Param("missionId") Long missionId);
+
+    /**
+     * Projections de toutes les demandes, les plus récentes en premier
+     * @return Liste des projections
+     */
+    @Query(DEMANDE_VIEW_SELECT + DEMANDE_VIEW_ORDER)
+    List<DemandeView> findAllViews();
+
+    // ============ Calcul des devis en arrière-plan ============
 
+    /**
+     * Demandes dont le devis est dans un état donné, les plus anciennes en premier
+     * @param statutDevis L'état du devis
+     * @param pageable La taille du lot
+     * @return Liste des demandes à traiter
+     */
+    @Query("SELECT new ma.tna.microservice3.repository.projection.DevisEnAttente(d.id, d.volume, d.poids, c.idCategorie) "
+            + "FROM Demande d LEFT JOIN d.categorie c WHERE d.statutDevis = :statutDevis ORDER BY d.id")
+    List<DevisEnAttente> findDevisEnAttente(@Param("statutDevis") StatutDevis statutDevis, Pageable pageable);
+
+    /**
+     * Enregistre le devis d'une demande si son devis est toujours dans l'état attendu
+     * @param id L'identifiant de la demande
+     * @param montant Le montant du devis
+     * @param statutDevis Le nouvel état du devis
+     * @param attendu L'état attendu avant mise à jour
+     * @param maintenant La date de modification
+     * @return Le nombre de lignes mises à jour (0 si le devis a déjà été enregistré)
+     */
+    @Modifying
+    @Query("UPDATE Demande d SET d.devisEstime = :montant, d.statutDevis = :statutDevis, d.dateModification = :maintenant, "
+            + "d.version = d.version + 1 WHERE d.id = :id AND d.statutDevis = :attendu")
+    int enregistrerDevis(@Param("id") Long id,
+                         @Param("montant") BigDecimal montant,
+                         @Param("statutDevis") StatutDevis statutDevis,
+                         @Param("attendu") StatutDevis attendu,
+                         @Param("maintenant") LocalDateTime maintenant);
+
+    /**
+     * Change le statut de validation d'une demande si son statut et sa version sont toujours ceux lus
+     * Sans verrou de ligne : entre deux écritures concurrentes, une seule voit son UPDATE aboutir
+     * @param id L'identifiant de la demande
+     * @param attendu Le statut lu avant la transition
+     * @param version La version lue avant la transition
+     * @param cible Le nouveau statut
+     * @param maintenant La date de modification
+     * @return Le nombre de lignes mises à jour (0 si le statut a changé entre-temps)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Demande d SET d.statutValidation = :cible, d.dateModification = :maintenant, "
+            + "d.version = d.version + 1 WHERE d.id = :id AND d.statutValidation = :attendu AND d.version = :version")
+    int changerStatutSi(@Param("id") Long id,
+                        @Param("attendu") StatutValidation attendu,
+                        @Param("version") Long version,
+                        @Param("cible") StatutValidation cible,
+                        @Param("maintenant") LocalDateTime maintenant);
+}
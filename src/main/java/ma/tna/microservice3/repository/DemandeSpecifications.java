@@ -0,0 +1,110 @@
+package ma.tna.microservice3.repository;
+
+import jakarta.persistence.criteria.Predicate;
+import ma.tna.microservice3.dto.DemandeSearchCriteria;
+import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.model.StatutDevis;
+import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.util.KeysetCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spécifications JPA pour la recherche paginée des demandes
+ * Les prédicats sont alignés sur les index composites (…, date_creation DESC, id DESC)
+ */
+public final class DemandeSpecifications {
+
+    /**
+     * Ordre de parcours keyset : du plus récent au plus ancien, id en départage
+     */
+    public static final Sort KEYSET_SORT = Sort.by(
+            Sort.Order.desc("dateCreation"),
+            Sort.Order.desc("id")
+    );
+
+    private DemandeSpecifications() {
+    }
+
+    /**
+     * Construit la spécification correspondant aux critères fournis
+     */
+    public static Specification<Demande> matching(DemandeSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (criteria.statut() != null) {
+                predicates.add(cb.equal(root.get("statutValidation"), criteria.statut()));
+            }
+            if (criteria.clientId() != null) {
+                predicates.add(cb.equal(root.get("clientId"), criteria.clientId()));
+            }
+            if (criteria.missionId() != null) {
+                predicates.add(cb.equal(root.get("missionId"), criteria.missionId()));
+            }
+            if (criteria.categorieId() != null) {
+                predicates.add(cb.equal(root.get("categorie").get("idCategorie"), criteria.categorieId()));
+            }
+            if (criteria.creeApres() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dateCreation"), criteria.creeApres()));
+            }
+            if (criteria.creeAvant() != null) {
+                predicates.add(cb.lessThan(root.get("dateCreation"), criteria.creeAvant()));
+            }
+            if (criteria.villeDepart() != null) {
+                predicates.add(cb.equal(root.get("villeDepart"), criteria.villeDepart()));
+            }
+            if (criteria.villeDestination() != null) {
+                predicates.add(cb.equal(root.get("villeDestination"), criteria.villeDestination()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Exclut les demandes ayant un statut donné
+     */
+    public static Specification<Demande> statutDifferentDe(StatutValidation statut) {
+        return (root, query, cb) -> cb.notEqual(root.get("statutValidation"), statut);
+    }
+
+    /**
+     * Positionne la recherche strictement après le curseur, selon {@link #KEYSET_SORT}
+     * (dateCreation < c) OR (dateCreation = c AND id < i)
+     */
+    public static Specification<Demande> apres(KeysetCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("dateCreation"), cursor.dateCreation()),
+                cb.and(
+                        cb.equal(root.get("dateCreation"), cursor.dateCreation()),
+                        cb.lessThan(root.get("id"), cursor.id())
+                )
+        );
+    }
+
+    /**
+     * Restreint aux demandes dont l'ID figure dans la liste
+     */
+    public static Specification<Demande> idDans(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Restreint aux demandes ayant l'un des statuts donnés
+     */
+    public static Specification<Demande> statutDans(Collection<StatutValidation> statuts) {
+        return (root, query, cb) -> root.get("statutValidation").in(statuts);
+    }
+
+    /**
+     * Exclut les demandes dont le devis est dans un état donné
+     */
+    public static Specification<Demande> devisDifferentDe(StatutDevis statutDevis) {
+        return (root, query, cb) -> cb.notEqual(root.get("statutDevis"), statutDevis);
+    }
+}
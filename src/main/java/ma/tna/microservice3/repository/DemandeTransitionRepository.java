@@ -0,0 +1,33 @@
+package ma.tna.microservice3.repository;
+
+import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.model.StatutValidation;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Fragment de {@link DemandeRepository} pour les changements de statut en masse (requêtes ensemblistes)
+ */
+public interface DemandeTransitionRepository {
+
+    /**
+     * Verrouille (SELECT ... FOR UPDATE) et retourne les IDs des demandes correspondant à la spécification
+     * Doit être appelé dans une transaction
+     * @param spec Les critères de sélection (garde de transition incluse)
+     * @param limite Le nombre maximal d'IDs retournés
+     * @return Les IDs verrouillés, triés
+     */
+    List<Long> verrouillerIds(Specification<Demande> spec, int limite);
+
+    /**
+     * Change le statut de validation des demandes par UPDATE ... WHERE id IN (...) (par paquets)
+     * Doit être appelé dans une transaction, après {@link #verrouillerIds}
+     * @param ids Les IDs des demandes
+     * @param cible Le nouveau statut
+     * @param maintenant La date de modification
+     * @return Le nombre de lignes mises à jour
+     */
+    int changerStatut(List<Long> ids, StatutValidation cible, LocalDateTime maintenant);
+}
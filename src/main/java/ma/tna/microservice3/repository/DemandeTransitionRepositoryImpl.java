@@ -0,0 +1,60 @@
+package ma.tna.microservice3.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.model.StatutValidation;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implémentation du fragment {@link DemandeTransitionRepository}
+ * Aucune entité n'est chargée : seuls les IDs sont lus, puis mis à jour par requêtes ensemblistes
+ */
+public class DemandeTransitionRepositoryImpl implements DemandeTransitionRepository {
+
+    /**
+     * Nombre maximal d'IDs par clause IN (limite des paramètres liés côté pilote JDBC)
+     */
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> verrouillerIds(Specification<Demande> spec, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Demande> root = query.from(Demande.class);
+        query.select(root.get("id"))
+                .where(spec.toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    public int changerStatut(List<Long> ids, StatutValidation cible, LocalDateTime maintenant) {
+        int total = 0;
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> paquet = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            total += entityManager.createQuery(
+                            "UPDATE Demande d SET d.statutValidation = :cible, d.dateModification = :maintenant, "
+                                    + "d.version = d.version + 1 WHERE d.id IN :ids")
+                    .setParameter("cible", cible)
+                    .setParameter("maintenant", maintenant)
+                    .setParameter("ids", paquet)
+                    .executeUpdate();
+        }
+        return total;
+    }
+}
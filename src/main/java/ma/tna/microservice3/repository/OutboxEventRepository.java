@@ -0,0 +1,77 @@
+package ma.tna.microservice3.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import ma.tna.microservice3.model.OutboxEvent;
+import ma.tna.microservice3.model.StatutEvenement;
+import org.hibernate.LockOptions;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository pour la table outbox des événements à livrer
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Verrouille un lot d'événements à livrer, les plus anciens en premier
+     * Les lignes déjà verrouillées par une autre instance sont ignorées (FOR UPDATE SKIP LOCKED)
+     * @param statut L'état des événements recherchés
+     * @param maintenant La date de référence (prochainEssai échu)
+     * @param pageable La taille du lot
+     * @return Liste des événements verrouillés
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "" + LockOptions.SKIP_LOCKED))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.statut = :statut AND e.prochainEssai <= :maintenant ORDER BY e.id")
+    List<OutboxEvent> findALivrer(@Param("statut") StatutEvenement statut,
+                                  @Param("maintenant") LocalDateTime maintenant,
+                                  Pageable pageable);
+
+    /**
+     * Marque un événement comme livré
+     * @param id L'identifiant de l'événement
+     * @param dateEnvoi La date de livraison
+     * @return Le nombre de lignes mises à jour
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.statut = ma.tna.microservice3.model.StatutEvenement.ENVOYE, "
+            + "e.dateEnvoi = :dateEnvoi, e.tentatives = e.tentatives + 1, e.derniereErreur = null WHERE e.id = :id")
+    int marquerEnvoye(@Param("id") Long id, @Param("dateEnvoi") LocalDateTime dateEnvoi);
+
+    /**
+     * Enregistre un échec de livraison : nouvel essai planifié ou abandon
+     * @param id L'identifiant de l'événement
+     * @param statut EN_ATTENTE (nouvel essai) ou ECHEC (abandon)
+     * @param prochainEssai La date du prochain essai
+     * @param erreur Le message d'erreur
+     * @return Le nombre de lignes mises à jour
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.statut = :statut, e.prochainEssai = :prochainEssai, "
+            + "e.tentatives = e.tentatives + 1, e.derniereErreur = :erreur WHERE e.id = :id")
+    int enregistrerEchec(@Param("id") Long id,
+                         @Param("statut") StatutEvenement statut,
+                         @Param("prochainEssai") LocalDateTime prochainEssai,
+                         @Param("erreur") String erreur);
+
+    /**
+     * Supprime les événements livrés avant une date donnée
+     * @param avant La date limite
+     * @return Le nombre d'événements supprimés
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.statut = ma.tna.microservice3.model.StatutEvenement.ENVOYE "
+            + "AND e.dateEnvoi < :avant")
+    int purgerEnvoyes(@Param("avant") LocalDateTime avant);
+}
@@ -0,0 +1,10 @@
+package ma.tna.microservice3.repository.projection;
+
+/**
+ * Projection minimale d'une demande : son client
+ */
+public record DemandeClient(
+        Long id,
+        Long clientId
+) {
+}
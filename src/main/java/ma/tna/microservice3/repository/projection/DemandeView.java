@@ -0,0 +1,41 @@
+package ma.tna.microservice3.repository.projection;
+
+import ma.tna.microservice3.model.StatutDevis;
+import ma.tna.microservice3.model.StatutValidation;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection en lecture seule d'une demande et de sa catégorie (colonnes aplaties)
+ * Alimentée par une expression constructeur JPQL : aucune entité n'est chargée dans le contexte de persistance
+ */
+public record DemandeView(
+        Long id,
+        Long clientId,
+        Double volume,
+        Double poids,
+        String natureMarchandise,
+        LocalDateTime dateDepart,
+        String villeDepart,
+        String villeDestination,
+        StatutValidation statutValidation,
+        BigDecimal devisEstime,
+        StatutDevis statutDevis,
+        String itineraireAssocieId,
+        Long missionId,
+        String categorieId,
+        String categorieNom,
+        String categorieDescription,
+        Double categorieDensiteMoyenne,
+        Boolean categorieFragile,
+        Boolean categorieDangereux,
+        String categorieTemperatureRequise,
+        String categorieRestrictions,
+        LocalDateTime categorieDateCreation,
+        LocalDateTime categorieDateModification,
+        LocalDateTime dateCreation,
+        LocalDateTime dateModification,
+        Long version
+) {
+}
@@ -0,0 +1,12 @@
+package ma.tna.microservice3.repository.projection;
+
+/**
+ * Projection minimale d'une demande dont le devis reste à calculer
+ */
+public record DevisEnAttente(
+        Long id,
+        Double volume,
+        Double poids,
+        String categorieId
+) {
+}
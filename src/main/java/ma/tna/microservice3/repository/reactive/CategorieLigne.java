@@ -0,0 +1,24 @@
+package ma.tna.microservice3.repository.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de la table categories lue par R2DBC (profil "reactive", lecture seule)
+ */
+@Table("categories")
+public record CategorieLigne(
+        @Id String idCategorie,
+        String nom,
+        String description,
+        Double densiteMoyenne,
+        Boolean fragile,
+        Boolean dangereux,
+        String temperatureRequise,
+        String restrictions,
+        LocalDateTime dateCreation,
+        LocalDateTime dateModification
+) {
+}
@@ -0,0 +1,12 @@
+package ma.tna.microservice3.repository.reactive;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository R2DBC des catégories (profil "reactive")
+ * Seul findAll est utilisé : le catalogue complet est chargé en une requête puis servi depuis la mémoire
+ */
+@Repository
+public interface CategorieReactiveRepository extends R2dbcRepository<CategorieLigne, String> {
+}
@@ -0,0 +1,35 @@
+package ma.tna.microservice3.repository.reactive;
+
+import ma.tna.microservice3.model.StatutDevis;
+import ma.tna.microservice3.model.StatutValidation;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de la table demandes lue par R2DBC (profil "reactive", lecture seule)
+ * La catégorie n'est présente que par son ID : elle est résolue depuis le catalogue en mémoire
+ */
+@Table("demandes")
+public record DemandeLigne(
+        @Id Long id,
+        Long clientId,
+        Double volume,
+        Double poids,
+        String natureMarchandise,
+        LocalDateTime dateDepart,
+        String villeDepart,
+        String villeDestination,
+        StatutValidation statutValidation,
+        BigDecimal devisEstime,
+        StatutDevis statutDevis,
+        String itineraireAssocieId,
+        Long missionId,
+        String categorieId,
+        LocalDateTime dateCreation,
+        LocalDateTime dateModification,
+        Long version
+) {
+}
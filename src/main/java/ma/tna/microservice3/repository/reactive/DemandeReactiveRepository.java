@@ -0,0 +1,34 @@
+package ma.tna.microservice3.repository.reactive;
+
+import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.repository.projection.DemandeClient;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Repository R2DBC des demandes (profil "reactive", lecture seule)
+ * Mêmes listings que DemandeRepository, dans le même ordre ; une requête par listing,
+ * la catégorie étant résolue depuis le catalogue en mémoire
+ */
+@Repository
+public interface DemandeReactiveRepository extends R2dbcRepository<DemandeLigne, Long> {
+
+    Flux<DemandeLigne> findByClientIdOrderByDateCreationDescIdDesc(Long clientId);
+
+    Flux<DemandeLigne> findAllByOrderByDateCreationDescIdDesc();
+
+    Flux<DemandeLigne> findByStatutValidationOrderByDateCreationDescIdDesc(StatutValidation statutValidation);
+
+    Flux<DemandeLigne> findByMissionIdOrderByDateCreationDescIdDesc(Long missionId);
+
+    /**
+     * Demandes d'une mission réduites à leur client (infos clients d'une mission)
+     */
+    Flux<DemandeClient> findClientsByMissionIdOrderById(Long missionId);
+
+    /**
+     * Toutes les demandes par ID croissant (export)
+     */
+    Flux<DemandeLigne> findAllByOrderById();
+}
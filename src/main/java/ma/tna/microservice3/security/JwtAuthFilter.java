@@ -4,7 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import ma.tna.microservice3.util.JwtUtil;
+import org.springframework.context.annotation.Profile;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -19,14 +19,16 @@ import java.util.Collections;
 /**
  * Filtre pour l'authentification JWT
  * Intercepte chaque requête pour valider le token JWT
+ * Le token n'est vérifié qu'une fois puis son identité est servie par {@link JwtPrincipalCache}
  */
 @Component
+@Profile("!reactive")
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    private final JwtPrincipalCache principalCache;
 
-    public JwtAuthFilter(JwtUtil jwtUtil) {
-        this.jwtUtil = jwtUtil;
+    public JwtAuthFilter(JwtPrincipalCache principalCache) {
+        this.principalCache = principalCache;
     }
 
     /**
@@ -44,6 +46,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                path.equals("/");
     }
 
+    /**
+     * Authentifier aussi les dispatchs asynchrones (export en flux, réponses Mono) :
+     * les règles d'autorisation y sont évaluées comme sur la requête initiale
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -53,7 +64,6 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         logger.debug("Processing request: " + request.getMethod() + " " + request.getRequestURI());
         logger.debug("Authorization header present: " + (authHeader != null));
@@ -74,38 +84,33 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         logger.debug("JWT token extracted, length: " + jwt.length());
 
         try {
-            // Extraire le nom d'utilisateur du token
-            username = jwtUtil.extractUsername(jwt);
-            logger.debug("Extracted username from token: " + username);
+            // Vérifier le token (signature + expiration) et extraire son identité en une seule passe
+            JwtPrincipal principal = principalCache.get(jwt);
+            logger.debug("Extracted username from token: " + principal.username());
 
             // Si l'utilisateur est valide et qu'il n'y a pas encore d'authentification
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-                // Valider le token
-                if (jwtUtil.validateToken(jwt)) {
-                    logger.debug("Token is valid");
-
-                    // Extraire les informations du token
-                    Long userId = jwtUtil.extractUserId(jwt);
-                    String role = jwtUtil.extractRole(jwt);
-                    logger.info("JWT Authentication successful - userId: " + userId + ", role: " + role);
+            if (principal.username() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                Long userId = principal.userId();
+                String role = principal.role();
+                if (logger.isDebugEnabled()) {
+                    logger.debug("JWT Authentication successful - userId: " + userId + ", role: " + role);
+                }
 
-                    // Créer l'authentification
-                    // Ajouter le préfixe ROLE_ si absent
-                    String roleWithPrefix = (role != null && role.startsWith("ROLE_")) ? role : "ROLE_" + role;
-                    SimpleGrantedAuthority authority = new SimpleGrantedAuthority(roleWithPrefix);
+                // Créer l'authentification
+                // Ajouter le préfixe ROLE_ si absent
+                String roleWithPrefix = (role != null && role.startsWith("ROLE_")) ? role : "ROLE_" + role;
+                SimpleGrantedAuthority authority = new SimpleGrantedAuthority(roleWithPrefix);
 
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userId,  // Le principal est l'ID utilisateur
-                            null,
-                            Collections.singletonList(authority)
-                    );
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userId,  // Le principal est l'ID utilisateur
+                        null,
+                        Collections.singletonList(authority)
+                );
 
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    // Définir l'authentification dans le contexte de sécurité
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                // Définir l'authentification dans le contexte de sécurité
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             logger.error("Erreur lors de la validation du token JWT: " + e.getMessage());
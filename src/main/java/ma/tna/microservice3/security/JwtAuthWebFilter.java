@@ -0,0 +1,64 @@
+package ma.tna.microservice3.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+/**
+ * Filtre d'authentification JWT du profil "reactive" (WebFlux)
+ * Même authentification que {@link JwtAuthFilter} : principal = ID utilisateur, autorité = ROLE_&lt;rôle&gt;,
+ * identité servie par {@link JwtPrincipalCache}. Un token absent ou invalide laisse la requête anonyme.
+ * Pas un @Component : il n'est inséré que dans la chaîne de sécurité (ReactiveSecurityConfig)
+ */
+public class JwtAuthWebFilter implements WebFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthWebFilter.class);
+
+    private final JwtPrincipalCache principalCache;
+
+    public JwtAuthWebFilter(JwtPrincipalCache principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        JwtPrincipal principal;
+        try {
+            // Vérifier le token (signature + expiration) et extraire son identité en une seule passe
+            principal = principalCache.get(authHeader.substring(7));
+        } catch (Exception e) {
+            logger.error("Erreur lors de la validation du token JWT: {}", e.getMessage());
+            return chain.filter(exchange);
+        }
+        if (principal.username() == null) {
+            return chain.filter(exchange);
+        }
+
+        String role = principal.role();
+        String roleWithPrefix = (role != null && role.startsWith("ROLE_")) ? role : "ROLE_" + role;
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal.userId(),  // Le principal est l'ID utilisateur
+                null,
+                Collections.singletonList(new SimpleGrantedAuthority(roleWithPrefix))
+        );
+
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authToken));
+    }
+}
@@ -0,0 +1,22 @@
+package ma.tna.microservice3.security;
+
+import java.time.Instant;
+
+/**
+ * Identité extraite d'un token JWT vérifié
+ * Immuable : peut être mise en cache et partagée entre requêtes
+ */
+public record JwtPrincipal(
+        String username,
+        Long userId,
+        String role,
+        Instant expiresAt
+) {
+
+    /**
+     * Indique si le token d'origine est expiré à l'instant donné
+     */
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
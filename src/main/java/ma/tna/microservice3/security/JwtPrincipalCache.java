@@ -0,0 +1,94 @@
+package ma.tna.microservice3.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ma.tna.microservice3.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Cache borné des tokens JWT déjà vérifiés
+ * La clé est l'empreinte SHA-256 du token (le token lui-même n'est pas conservé) ;
+ * une entrée expire au plus tard à l'expiration du token, ou après la durée maximale configurée
+ */
+@Component
+public class JwtPrincipalCache {
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, JwtPrincipal> cache;
+
+    public JwtPrincipalCache(
+            JwtUtil jwtUtil,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.cache.max-size:10000}") long maxSize,
+            @Value("${jwt.cache.max-ttl:10m}") Duration maxTtl
+    ) {
+        this.jwtUtil = jwtUtil;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(maxTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.principals");
+    }
+
+    /**
+     * Retourne l'identité portée par le token, en ne vérifiant la signature qu'au premier passage
+     * @throws io.jsonwebtoken.JwtException si le token est invalide ou expiré
+     */
+    public JwtPrincipal get(String token) {
+        String key = digest(token);
+        JwtPrincipal principal = cache.get(key, k -> jwtUtil.parse(token));
+        if (principal.isExpired(Instant.now())) {
+            cache.invalidate(key);
+            throw new ExpiredJwtException(null, null, "Token JWT expiré");
+        }
+        return principal;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Durée de vie d'une entrée : jusqu'à l'expiration du token, plafonnée à maxTtl
+     */
+    private record TokenExpiry(Duration maxTtl) implements Expiry<String, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+            long maxNanos = maxTtl.toNanos();
+            if (principal.expiresAt() == null) {
+                return maxNanos;
+            }
+            long untilExpiry = Duration.between(Instant.now(), principal.expiresAt()).toNanos();
+            return Math.max(0, Math.min(maxNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
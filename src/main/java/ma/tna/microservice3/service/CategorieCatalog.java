@@ -0,0 +1,228 @@
+package ma.tna.microservice3.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ma.tna.microservice3.dto.CategorieResponseDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.Optional;
+
+/**
+ * Instantané immuable du catalogue des catégories
+ * Les index (par ID, par nom, par fragilité, par dangerosité, par température) sont construits
+ * une seule fois à la création : les lectures ne font ensuite que des accès en mémoire
+ * La version (ETag) est dérivée du contenu : identique sur toutes les instances pour un même catalogue
+ * Les vues servies en liste (tout, fragilité, dangerosité, température) sont aussi pré-sérialisées en JSON
+ * et en gzip : elles ne sont reconstruites qu'à l'invalidation du catalogue
+ */
+public final class CategorieCatalog {
+
+    private final List<CategorieResponseDTO> categories;
+    private final Map<String, CategorieResponseDTO> parId;
+    private final Map<String, CategorieResponseDTO> parNom;
+    private final List<CategorieResponseDTO> fragiles;
+    private final List<CategorieResponseDTO> nonFragiles;
+    private final List<CategorieResponseDTO> dangereuses;
+    private final List<CategorieResponseDTO> nonDangereuses;
+    private final Map<String, List<CategorieResponseDTO>> parTemperature;
+    private final String etag;
+    private final Instant derniereModification;
+
+    private final VueSerialisee vueTout;
+    private final VueSerialisee vueFragiles;
+    private final VueSerialisee vueNonFragiles;
+    private final VueSerialisee vueDangereuses;
+    private final VueSerialisee vueNonDangereuses;
+    private final Map<String, VueSerialisee> vuesParTemperature;
+    private final VueSerialisee vueVide;
+
+    private final CategorieIndexRecherche indexRecherche;
+
+    private CategorieCatalog(List<CategorieResponseDTO> categories,
+                             Function<List<CategorieResponseDTO>, VueSerialisee> serialiseur) {
+        Map<String, CategorieResponseDTO> byId = new HashMap<>();
+        Map<String, CategorieResponseDTO> byNom = new HashMap<>();
+        List<CategorieResponseDTO> fragile = new ArrayList<>();
+        List<CategorieResponseDTO> nonFragile = new ArrayList<>();
+        List<CategorieResponseDTO> dangereux = new ArrayList<>();
+        List<CategorieResponseDTO> nonDangereux = new ArrayList<>();
+        Map<String, List<CategorieResponseDTO>> byTemperature = new HashMap<>();
+
+        for (CategorieResponseDTO categorie : categories) {
+            byId.put(categorie.idCategorie(), categorie);
+            byNom.put(categorie.nom(), categorie);
+            (Boolean.TRUE.equals(categorie.fragile()) ? fragile : nonFragile).add(categorie);
+            (Boolean.TRUE.equals(categorie.dangereux()) ? dangereux : nonDangereux).add(categorie);
+            if (categorie.temperatureRequise() != null) {
+                byTemperature.computeIfAbsent(categorie.temperatureRequise(), t -> new ArrayList<>()).add(categorie);
+            }
+        }
+
+        this.categories = List.copyOf(categories);
+        this.parId = Map.copyOf(byId);
+        this.parNom = Map.copyOf(byNom);
+        this.fragiles = List.copyOf(fragile);
+        this.nonFragiles = List.copyOf(nonFragile);
+        this.dangereuses = List.copyOf(dangereux);
+        this.nonDangereuses = List.copyOf(nonDangereux);
+        Map<String, List<CategorieResponseDTO>> temperatures = new HashMap<>();
+        byTemperature.forEach((temperature, liste) -> temperatures.put(temperature, List.copyOf(liste)));
+        this.parTemperature = Map.copyOf(temperatures);
+        this.etag = calculerEtag(this.categories);
+        this.derniereModification = categories.stream()
+                .map(CategorieResponseDTO::dateModification)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .map(date -> date.atZone(ZoneId.systemDefault()).toInstant())
+                .orElse(Instant.EPOCH);
+
+        this.vueTout = serialiseur.apply(this.categories);
+        this.vueFragiles = serialiseur.apply(this.fragiles);
+        this.vueNonFragiles = serialiseur.apply(this.nonFragiles);
+        this.vueDangereuses = serialiseur.apply(this.dangereuses);
+        this.vueNonDangereuses = serialiseur.apply(this.nonDangereuses);
+        Map<String, VueSerialisee> vuesTemperature = new HashMap<>();
+        this.parTemperature.forEach((temperature, liste) -> vuesTemperature.put(temperature, serialiseur.apply(liste)));
+        this.vuesParTemperature = Map.copyOf(vuesTemperature);
+        this.vueVide = serialiseur.apply(List.of());
+
+        this.indexRecherche = new CategorieIndexRecherche(this.categories);
+    }
+
+    /**
+     * Empreinte des couples (ID, date de modification) triés par ID : change à chaque création,
+     * modification ou suppression de catégorie
+     */
+    private static String calculerEtag(List<CategorieResponseDTO> categories) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            categories.stream()
+                    .sorted(Comparator.comparing(CategorieResponseDTO::idCategorie))
+                    .forEach(categorie -> digest.update((categorie.idCategorie() + '|' + categorie.dateModification() + '\n')
+                            .getBytes(StandardCharsets.UTF_8)));
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Construit un instantané à partir de la liste complète des catégories
+     * @param serialiseur Sérialise une liste de catégories (même ObjectMapper que les réponses HTTP)
+     */
+    public static CategorieCatalog of(List<CategorieResponseDTO> categories,
+                                      Function<List<CategorieResponseDTO>, VueSerialisee> serialiseur) {
+        return new CategorieCatalog(categories, serialiseur);
+    }
+
+    /**
+     * Construit un instantané dont les vues sont sérialisées par l'ObjectMapper des réponses HTTP
+     */
+    public static CategorieCatalog of(List<CategorieResponseDTO> categories, ObjectMapper objectMapper) {
+        return of(categories, liste -> {
+            try {
+                return VueSerialisee.of(objectMapper.writeValueAsBytes(liste));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Sérialisation du catalogue impossible", e);
+            }
+        });
+    }
+
+    public List<CategorieResponseDTO> all() {
+        return categories;
+    }
+
+    public int size() {
+        return categories.size();
+    }
+
+    /**
+     * ETag fort du catalogue, guillemets compris
+     */
+    public String etag() {
+        return etag;
+    }
+
+    /**
+     * Date de modification la plus récente du catalogue (Last-Modified)
+     * Une suppression ne l'avance pas : l'ETag reste le validateur de référence
+     */
+    public Instant derniereModification() {
+        return derniereModification;
+    }
+
+    public Optional<CategorieResponseDTO> findById(String id) {
+        return Optional.ofNullable(id != null ? parId.get(id) : null);
+    }
+
+    public Optional<CategorieResponseDTO> findByNom(String nom) {
+        return Optional.ofNullable(nom != null ? parNom.get(nom) : null);
+    }
+
+    public List<CategorieResponseDTO> byFragile(boolean fragile) {
+        return fragile ? fragiles : nonFragiles;
+    }
+
+    public List<CategorieResponseDTO> byDangereux(boolean dangereux) {
+        return dangereux ? dangereuses : nonDangereuses;
+    }
+
+    public List<CategorieResponseDTO> byTemperature(String temperatureRequise) {
+        return temperatureRequise != null ? parTemperature.getOrDefault(temperatureRequise, List.of()) : List.of();
+    }
+
+    /**
+     * Recherche par similarité sur le nom (trigrammes, insensible à la casse et aux accents)
+     * @param seuil La similarité minimale des noms qui ne contiennent pas le texte
+     */
+    public List<CategorieResponseDTO> rechercher(String texte, double seuil, int limite) {
+        return indexRecherche.rechercher(texte, seuil, limite);
+    }
+
+    /**
+     * Catégories dont le nom ou l'un de ses mots commence par le préfixe (insensible à la casse et aux accents)
+     */
+    public List<CategorieResponseDTO> autocompleter(String prefixe, int limite) {
+        return indexRecherche.autocompleter(prefixe, limite);
+    }
+
+    public VueSerialisee serialiseAll() {
+        return vueTout;
+    }
+
+    public VueSerialisee serialiseByFragile(boolean fragile) {
+        return fragile ? vueFragiles : vueNonFragiles;
+    }
+
+    public VueSerialisee serialiseByDangereux(boolean dangereux) {
+        return dangereux ? vueDangereuses : vueNonDangereuses;
+    }
+
+    public VueSerialisee serialiseByTemperature(String temperatureRequise) {
+        return temperatureRequise != null ? vuesParTemperature.getOrDefault(temperatureRequise, vueVide) : vueVide;
+    }
+
+    /**
+     * Taille en octets de toutes les vues pré-sérialisées (JSON et gzip)
+     */
+    public long tailleSerialisee() {
+        long taille = vueTout.taille() + vueFragiles.taille() + vueNonFragiles.taille()
+                + vueDangereuses.taille() + vueNonDangereuses.taille() + vueVide.taille();
+        for (VueSerialisee vue : vuesParTemperature.values()) {
+            taille += vue.taille();
+        }
+        return taille;
+    }
+}
@@ -0,0 +1,141 @@
+package ma.tna.microservice3.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ma.tna.microservice3.mapper.CategorieMapper;
+import ma.tna.microservice3.repository.CategorieRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache en lecture seule (read-through) du catalogue des catégories
+ * Le catalogue est petit et quasi statique : il est chargé en une requête puis servi depuis un
+ * instantané immuable, remplacé atomiquement après chaque écriture validée
+ */
+@Component
+public class CategorieCatalogCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorieCatalogCache.class);
+
+    private final CategorieRepository categorieRepository;
+    private final CategorieMapper categorieMapper;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<CategorieCatalog> snapshot = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter reloads;
+
+    public CategorieCatalogCache(
+            CategorieRepository categorieRepository,
+            CategorieMapper categorieMapper,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.categorieRepository = categorieRepository;
+        this.categorieMapper = categorieMapper;
+        this.objectMapper = objectMapper;
+        this.hits = Counter.builder("categories.catalog.cache.requests")
+                .tag("result", "hit")
+                .description("Lectures du catalogue servies depuis l'instantané en mémoire")
+                .register(meterRegistry);
+        this.misses = Counter.builder("categories.catalog.cache.requests")
+                .tag("result", "miss")
+                .description("Lectures du catalogue ayant nécessité un chargement depuis la base")
+                .register(meterRegistry);
+        this.reloads = Counter.builder("categories.catalog.cache.reloads")
+                .description("Chargements du catalogue depuis la base")
+                .register(meterRegistry);
+        Gauge.builder("categories.catalog.cache.size", snapshot, ref -> {
+                    CategorieCatalog current = ref.get();
+                    return current != null ? current.size() : 0;
+                })
+                .description("Nombre de catégories dans l'instantané courant")
+                .register(meterRegistry);
+        Gauge.builder("categories.catalog.cache.serialized.bytes", snapshot, ref -> {
+                    CategorieCatalog current = ref.get();
+                    return current != null ? current.tailleSerialisee() : 0;
+                })
+                .description("Taille des vues pré-sérialisées (JSON et gzip) de l'instantané courant")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retourne l'instantané courant du catalogue, en le chargeant si nécessaire
+     */
+    public CategorieCatalog catalog() {
+        CategorieCatalog current = snapshot.get();
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+
+        misses.increment();
+        loadLock.lock();
+        try {
+            current = snapshot.get();
+            if (current != null) {
+                return current;
+            }
+
+            long expectedGeneration = generation.get();
+            CategorieCatalog loaded = load();
+            // Une invalidation survenue pendant le chargement rend cet instantané potentiellement périmé
+            if (generation.get() == expectedGeneration) {
+                snapshot.set(loaded);
+            }
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Invalide le catalogue une fois la transaction courante validée
+     * (immédiatement s'il n'y a pas de transaction active) ; l'instantané suivant est
+     * reconstruit au premier accès, par un seul thread
+     */
+    public void invalidateAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate();
+                }
+            });
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * Invalide l'instantané courant : le prochain accès rechargera depuis la base
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+    }
+
+    private CategorieCatalog load() {
+        CategorieCatalog loaded = CategorieCatalog.of(categorieRepository.findAll().stream()
+                .map(categorieMapper::toResponseDTO)
+                .toList(), objectMapper);
+        reloads.increment();
+        logger.info("Catalogue des catégories chargé: {} catégories ({} octets pré-sérialisés)",
+                loaded.size(), loaded.tailleSerialisee());
+        return loaded;
+    }
+}
@@ -0,0 +1,153 @@
+package ma.tna.microservice3.service;
+
+import ma.tna.microservice3.dto.CategorieResponseDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Index de recherche en mémoire sur le nom des catégories (trigrammes, insensible à la casse et aux accents)
+ * Reproduit le comportement de pg_trgm + unaccent : mêmes trigrammes (mots bordés de deux espaces devant,
+ * un derrière) et même similarité (trigrammes communs / trigrammes distincts des deux textes)
+ */
+final class CategorieIndexRecherche {
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int[] AUCUN = new int[0];
+
+    private final List<CategorieResponseDTO> categories;
+    private final String[] noms;
+    private final String[][] mots;
+    private final int[] nombreTrigrammes;
+    private final Map<String, int[]> parTrigramme;
+
+    CategorieIndexRecherche(List<CategorieResponseDTO> categories) {
+        this.categories = categories;
+        this.noms = new String[categories.size()];
+        this.mots = new String[categories.size()][];
+        this.nombreTrigrammes = new int[categories.size()];
+
+        Map<String, List<Integer>> index = new HashMap<>();
+        for (int i = 0; i < categories.size(); i++) {
+            noms[i] = normaliser(categories.get(i).nom());
+            mots[i] = noms[i].isEmpty() ? new String[0] : SEPARATEURS.split(noms[i]);
+            Set<String> trigrammes = trigrammes(noms[i]);
+            nombreTrigrammes[i] = trigrammes.size();
+            for (String trigramme : trigrammes) {
+                index.computeIfAbsent(trigramme, t -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, int[]> compacte = new HashMap<>(index.size() * 2);
+        index.forEach((trigramme, positions) ->
+                compacte.put(trigramme, positions.stream().mapToInt(Integer::intValue).toArray()));
+        this.parTrigramme = compacte;
+    }
+
+    /**
+     * Catégories dont le nom contient le texte ou lui est similaire, les plus similaires en premier
+     * @param texte Le texte recherché
+     * @param seuil La similarité minimale des noms qui ne contiennent pas le texte (0.3 dans pg_trgm)
+     * @param limite Le nombre maximal de résultats
+     */
+    List<CategorieResponseDTO> rechercher(String texte, double seuil, int limite) {
+        String requete = normaliser(texte);
+        if (requete.isEmpty()) {
+            return List.of();
+        }
+
+        // Trigrammes communs comptés via l'index inversé : seules les catégories partageant un trigramme sont visitées
+        Set<String> trigrammesRequete = trigrammes(requete);
+        int[] communs = new int[noms.length];
+        for (String trigramme : trigrammesRequete) {
+            for (int position : parTrigramme.getOrDefault(trigramme, AUCUN)) {
+                communs[position]++;
+            }
+        }
+
+        List<Resultat> resultats = new ArrayList<>();
+        for (int i = 0; i < noms.length; i++) {
+            double similarite = communs[i] == 0 ? 0
+                    : (double) communs[i] / (trigrammesRequete.size() + nombreTrigrammes[i] - communs[i]);
+            if (similarite >= seuil || noms[i].contains(requete)) {
+                resultats.add(new Resultat(i, similarite, 0));
+            }
+        }
+        return trier(resultats, Comparator.comparingDouble(Resultat::similarite).reversed(), limite);
+    }
+
+    /**
+     * Catégories dont le nom, ou l'un de ses mots, commence par le préfixe
+     * Les noms commençant par le préfixe passent en premier, puis les plus courts
+     */
+    List<CategorieResponseDTO> autocompleter(String prefixe, int limite) {
+        String requete = normaliser(prefixe);
+        if (requete.isEmpty()) {
+            return List.of();
+        }
+
+        List<Resultat> resultats = new ArrayList<>();
+        for (int i = 0; i < noms.length; i++) {
+            if (noms[i].startsWith(requete)) {
+                resultats.add(new Resultat(i, 0, 0));
+            } else {
+                for (String mot : mots[i]) {
+                    if (mot.startsWith(requete)) {
+                        resultats.add(new Resultat(i, 0, 1));
+                        break;
+                    }
+                }
+            }
+        }
+        return trier(resultats, Comparator.comparingInt(Resultat::rang)
+                .thenComparingInt(resultat -> noms[resultat.position()].length()), limite);
+    }
+
+    private List<CategorieResponseDTO> trier(List<Resultat> resultats, Comparator<Resultat> ordre, int limite) {
+        return resultats.stream()
+                .sorted(ordre.thenComparing(resultat -> noms[resultat.position()]))
+                .limit(limite)
+                .map(resultat -> categories.get(resultat.position()))
+                .toList();
+    }
+
+    /**
+     * Minuscules sans accents (équivalent de lower(unaccent(texte)))
+     */
+    static String normaliser(String texte) {
+        if (texte == null) {
+            return "";
+        }
+        String sansAccents = ACCENTS.matcher(Normalizer.normalize(texte, Normalizer.Form.NFD)).replaceAll("");
+        return sansAccents.toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Trigrammes d'un texte normalisé, calculés mot par mot comme pg_trgm
+     */
+    static Set<String> trigrammes(String normalise) {
+        Set<String> trigrammes = new LinkedHashSet<>();
+        for (String mot : SEPARATEURS.split(normalise)) {
+            if (mot.isEmpty()) {
+                continue;
+            }
+            String borde = "  " + mot + " ";
+            for (int i = 0; i + 3 <= borde.length(); i++) {
+                trigrammes.add(borde.substring(i, i + 3));
+            }
+        }
+        return trigrammes;
+    }
+
+    private record Resultat(int position, double similarite, int rang) {
+    }
+}
@@ -0,0 +1,135 @@
+package ma.tna.microservice3.service;
+
+import ma.tna.microservice3.dto.CategorieResponseDTO;
+import ma.tna.microservice3.repository.CategorieRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Recherche de catégories par nom, insensible à la casse et aux accents, classée par similarité
+ * Sur PostgreSQL : requêtes natives sur l'index GIN pg_trgm/unaccent (migration_v8.sql) ;
+ * sinon (H2, développement) : index de trigrammes en mémoire, reconstruit avec le catalogue
+ */
+@Component
+public class CategorieRecherche {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorieRecherche.class);
+
+    /**
+     * Mode de recherche (categories.search.mode)
+     */
+    enum Mode {
+        /** PostgreSQL détecté : requêtes natives, repli en mémoire si la migration n'est pas appliquée */
+        AUTO,
+        /** Toujours les requêtes natives (erreur si la migration manque) */
+        POSTGRES,
+        /** Toujours l'index en mémoire */
+        MEMOIRE
+    }
+
+    private final CategorieRepository categorieRepository;
+    private final CategorieCatalogCache catalogCache;
+    private final DataSource dataSource;
+    private final Mode mode;
+    private final double seuil;
+
+    private volatile Boolean natif;
+
+    public CategorieRecherche(
+            CategorieRepository categorieRepository,
+            CategorieCatalogCache catalogCache,
+            DataSource dataSource,
+            @Value("${categories.search.mode:auto}") String mode,
+            @Value("${categories.search.similarity-threshold:0.3}") double seuil
+    ) {
+        this.categorieRepository = categorieRepository;
+        this.catalogCache = catalogCache;
+        this.dataSource = dataSource;
+        this.mode = Mode.valueOf(mode.toUpperCase());
+        this.seuil = seuil;
+    }
+
+    /**
+     * Catégories dont le nom contient le texte ou lui est similaire, les plus similaires en premier
+     */
+    public List<CategorieResponseDTO> rechercher(String texte, int limite) {
+        return executer(
+                () -> categorieRepository.rechercherIdsParSimilarite(texte, echapperLike(texte), limite),
+                catalogue -> catalogue.rechercher(texte, seuil, limite));
+    }
+
+    /**
+     * Catégories dont le nom, ou l'un de ses mots, commence par le préfixe
+     */
+    public List<CategorieResponseDTO> autocompleter(String prefixe, int limite) {
+        return executer(
+                () -> categorieRepository.autocompleterIds(echapperLike(prefixe), limite),
+                catalogue -> catalogue.autocompleter(prefixe, limite));
+    }
+
+    private List<CategorieResponseDTO> executer(Supplier<List<String>> requete,
+                                                Function<CategorieCatalog, List<CategorieResponseDTO>> enMemoire) {
+        CategorieCatalog catalogue = catalogCache.catalog();
+        if (!natif()) {
+            return enMemoire.apply(catalogue);
+        }
+
+        try {
+            // Les IDs sont résolus dans l'instantané du catalogue : mêmes DTO que les autres lectures
+            return requete.get().stream()
+                    .map(catalogue::findById)
+                    .flatMap(Optional::stream)
+                    .toList();
+        } catch (DataAccessException e) {
+            if (mode != Mode.AUTO) {
+                throw e;
+            }
+            // Extensions ou fonction f_unaccent absentes : index en mémoire jusqu'au redémarrage
+            natif = false;
+            logger.warn("Recherche native des catégories indisponible (migration_v8.sql appliquée ?), "
+                    + "passage à l'index en mémoire: {}", e.getMostSpecificCause().getMessage());
+            return enMemoire.apply(catalogue);
+        }
+    }
+
+    private boolean natif() {
+        Boolean actuel = natif;
+        if (actuel == null) {
+            actuel = switch (mode) {
+                case POSTGRES -> true;
+                case MEMOIRE -> false;
+                case AUTO -> estPostgres();
+            };
+            natif = actuel;
+            logger.info("Recherche des catégories: {}", actuel ? "requêtes natives pg_trgm" : "index en mémoire");
+        }
+        return actuel;
+    }
+
+    private boolean estPostgres() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            logger.warn("Base de données non identifiée, recherche des catégories en mémoire: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Échappe les caractères spéciaux de LIKE (caractère d'échappement par défaut de PostgreSQL : \)
+     */
+    private static String echapperLike(String texte) {
+        return texte.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
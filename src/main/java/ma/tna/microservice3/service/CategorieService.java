@@ -2,6 +2,7 @@ package ma.tna.microservice3.service;
 
 import ma.tna.microservice3.dto.CategorieRequestDTO;
 import ma.tna.microservice3.dto.CategorieResponseDTO;
+import ma.tna.microservice3.dto.CategorieSuggestionDTO;
 
 import java.util.List;
 
@@ -10,6 +11,12 @@ import java.util.List;
  */
 public interface CategorieService {
 
+    /**
+     * Instantané courant du catalogue (ETag et Last-Modified des requêtes conditionnelles)
+     * @return L'instantané, servi depuis la mémoire sauf au premier accès après une écriture
+     */
+    CategorieCatalog getCatalogue();
+
     /**
      * Crée une nouvelle catégorie
      * @param dto Les données de la catégorie
@@ -67,12 +74,20 @@ public interface CategorieService {
     List<CategorieResponseDTO> getCategoriesByTemperature(String temperatureRequise);
 
     /**
-     * Recherche les catégories par mot-clé dans le nom
+     * Recherche les catégories par mot-clé dans le nom (insensible à la casse et aux accents)
      * @param keyword Le mot-clé
-     * @return Liste des catégories correspondantes
+     * @return Les catégories dont le nom contient le mot-clé ou lui est similaire, les plus similaires en premier
      */
     List<CategorieResponseDTO> searchCategories(String keyword);
 
+    /**
+     * Suggestions de catégories dont le nom, ou l'un de ses mots, commence par le préfixe
+     * @param prefixe Le début du nom saisi
+     * @param limite Le nombre maximal de suggestions
+     * @return Les suggestions, noms commençant par le préfixe d'abord
+     */
+    List<CategorieSuggestionDTO> autocompleter(String prefixe, int limite);
+
     /**
      * Supprime une catégorie
      * @param id L'ID de la catégorie à supprimer
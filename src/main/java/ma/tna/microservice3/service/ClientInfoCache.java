@@ -0,0 +1,175 @@
+package ma.tna.microservice3.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ma.tna.microservice3.client.UtilisateursClient;
+import ma.tna.microservice3.dto.ClientInfoDTO;
+import ma.tna.microservice3.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache borné des informations client du Service Utilisateurs, par clientId
+ * - une entrée est fraîche pendant la durée configurée, puis rechargée au prochain accès ;
+ * - les appels concurrents pour un même client partagent un seul appel en cours (single-flight) ;
+ * - un 404 est mémorisé (cache négatif) pour une durée plus courte ;
+ * - si le rechargement échoue, la dernière valeur connue est servie (stale-while-revalidate)
+ * Le contrôle d'accès est fait par l'appelant ; le token transmis est celui du premier appelant.
+ */
+@Component
+public class ClientInfoCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientInfoCache.class);
+
+    private final UtilisateursClient utilisateursClient;
+    private final long ttlNanos;
+    private final Cache<Long, Entree> cache;
+    private final ConcurrentMap<Long, CompletableFuture<Entree>> enCours = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter hitsNegatifs;
+    private final Counter misses;
+    private final Counter coalesces;
+    private final Counter perimes;
+    private final Counter appels;
+
+    public ClientInfoCache(
+            UtilisateursClient utilisateursClient,
+            MeterRegistry meterRegistry,
+            @Value("${clients.info.cache.max-size:10000}") long maxSize,
+            @Value("${clients.info.cache.ttl:5m}") Duration ttl,
+            @Value("${clients.info.cache.negative-ttl:30s}") Duration negativeTtl,
+            @Value("${clients.info.cache.stale-max-age:1h}") Duration staleMaxAge
+    ) {
+        this.utilisateursClient = utilisateursClient;
+        this.ttlNanos = ttl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new EntreeExpiry(ttl.plus(staleMaxAge).toNanos(), negativeTtl.toNanos()))
+                .build();
+
+        this.hits = compteur(meterRegistry, "hit", "Informations client servies depuis le cache");
+        this.hitsNegatifs = compteur(meterRegistry, "negative_hit", "Clients inconnus (404) servis depuis le cache négatif");
+        this.misses = compteur(meterRegistry, "miss", "Lectures ayant déclenché un appel au Service Utilisateurs");
+        this.coalesces = compteur(meterRegistry, "coalesced", "Lectures ayant rejoint un appel déjà en cours");
+        this.perimes = compteur(meterRegistry, "stale", "Valeurs périmées servies suite à une erreur du Service Utilisateurs");
+        this.appels = Counter.builder("clients.info.downstream.calls")
+                .description("Appels effectifs au Service Utilisateurs (économies = lectures - appels)")
+                .register(meterRegistry);
+        Gauge.builder("clients.info.cache.size", cache, Cache::estimatedSize)
+                .description("Nombre de clients en cache (entrées négatives et périmées comprises)")
+                .register(meterRegistry);
+    }
+
+    private static Counter compteur(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("clients.info.cache.requests")
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retourne les informations d'un client, depuis le cache ou le Service Utilisateurs
+     * @param clientId L'ID du client
+     * @param authToken Le header Authorization transmis au Service Utilisateurs en cas d'appel
+     * @return Les informations du client (ResourceNotFoundException si le client n'existe pas)
+     */
+    public Mono<ClientInfoDTO> get(Long clientId, String authToken) {
+        return Mono.defer(() -> {
+            Entree entree = cache.getIfPresent(clientId);
+            if (entree != null && entree.estFraiche(System.nanoTime(), ttlNanos)) {
+                (entree.info() != null ? hits : hitsNegatifs).increment();
+                return entree.resultat(clientId);
+            }
+            return charger(clientId, authToken).flatMap(chargee -> chargee.resultat(clientId));
+        });
+    }
+
+    private Mono<Entree> charger(Long clientId, String authToken) {
+        CompletableFuture<Entree> vol = new CompletableFuture<>();
+        CompletableFuture<Entree> existant = enCours.putIfAbsent(clientId, vol);
+        if (existant != null) {
+            coalesces.increment();
+            // suppressCancel : l'annulation d'un appelant n'interrompt pas l'appel partagé
+            return Mono.fromFuture(existant, true);
+        }
+
+        misses.increment();
+        appels.increment();
+        appeler(clientId, authToken)
+                .doFinally(signal -> enCours.remove(clientId, vol))
+                .subscribe(vol::complete, vol::completeExceptionally);
+        return Mono.fromFuture(vol, true);
+    }
+
+    private Mono<Entree> appeler(Long clientId, String authToken) {
+        return utilisateursClient.getClient(clientId, authToken)
+                .map(info -> new Entree(info, System.nanoTime()))
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                        "Réponse vide du Service Utilisateurs pour le client ID: " + clientId)))
+                .onErrorResume(WebClientResponseException.NotFound.class,
+                        e -> Mono.just(new Entree(null, System.nanoTime())))
+                .doOnNext(entree -> cache.put(clientId, entree))
+                .onErrorResume(e -> {
+                    Entree perimee = cache.getIfPresent(clientId);
+                    if (perimee == null || perimee.info() == null) {
+                        return Mono.error(e);
+                    }
+                    perimes.increment();
+                    logger.warn("Service Utilisateurs en erreur, informations périmées servies pour le client ID {}: {}",
+                            clientId, e.getMessage());
+                    return Mono.just(perimee);
+                });
+    }
+
+    /**
+     * Informations d'un client (null : client inconnu du Service Utilisateurs) et instant de chargement
+     */
+    private record Entree(ClientInfoDTO info, long chargeeA) {
+
+        boolean estFraiche(long maintenant, long ttlNanos) {
+            // Une entrée négative est fraîche jusqu'à son expiration (negative-ttl)
+            return info == null || maintenant - chargeeA < ttlNanos;
+        }
+
+        Mono<ClientInfoDTO> resultat(Long clientId) {
+            return info != null
+                    ? Mono.just(info)
+                    : Mono.error(new ResourceNotFoundException("Client non trouvé dans le Service Utilisateurs, ID: " + clientId));
+        }
+    }
+
+    /**
+     * Durée de vie d'une entrée : ttl + stale-max-age pour une valeur, negative-ttl pour un 404
+     */
+    private record EntreeExpiry(long valeurNanos, long negativeNanos) implements Expiry<Long, Entree> {
+
+        @Override
+        public long expireAfterCreate(Long key, Entree entree, long currentTime) {
+            return entree.info() != null ? valeurNanos : negativeNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Entree entree, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entree, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Entree entree, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
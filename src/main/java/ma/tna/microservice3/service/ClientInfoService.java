@@ -0,0 +1,165 @@
+package ma.tna.microservice3.service;
+
+import ma.tna.microservice3.dto.ClientInfoDTO;
+import ma.tna.microservice3.dto.MissionClientDTO;
+import ma.tna.microservice3.dto.MissionClientsDTO;
+import ma.tna.microservice3.exception.ResourceNotFoundException;
+import ma.tna.microservice3.exception.UnauthorizedException;
+import ma.tna.microservice3.repository.DemandeRepository;
+import ma.tna.microservice3.repository.projection.DemandeClient;
+import ma.tna.microservice3.repository.projection.DemandeView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service de récupération des informations client depuis le Service Utilisateurs
+ * Les méthodes renvoient un Mono : le contrôleur MVC traite la requête en asynchrone et
+ * aucun thread n'est bloqué pendant l'appel au Service Utilisateurs.
+ * La lecture JPA (bloquante) est exécutée sur le scheduler boundedElastic.
+ * Pas de @Transactional ici : une méthode transactionnelle renvoyant un Mono exigerait
+ * un ReactiveTransactionManager ; la lecture utilise la transaction du repository.
+ * Les informations client sont servies par {@link ClientInfoCache}.
+ */
+@Service
+public class ClientInfoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientInfoService.class);
+
+    private final DemandeRepository demandeRepository;
+    private final ClientInfoCache clientInfoCache;
+    private final int parallelismeMission;
+
+    public ClientInfoService(
+            DemandeRepository demandeRepository,
+            ClientInfoCache clientInfoCache,
+            @Value("${clients.info.mission.parallelism:8}") int parallelismeMission
+    ) {
+        this.demandeRepository = demandeRepository;
+        this.clientInfoCache = clientInfoCache;
+        this.parallelismeMission = parallelismeMission;
+    }
+
+    /**
+     * Récupère les informations du client d'une demande depuis le Service Utilisateurs
+     * @param demandeId L'ID de la demande
+     * @param userId L'ID de l'utilisateur qui fait la requête
+     * @param role Le rôle de l'utilisateur
+     * @param authToken Le token JWT pour l'authentification auprès du service Utilisateurs
+     * @return Les informations du client
+     */
+    public Mono<ClientInfoDTO> getClientInfoByDemande(Long demandeId, Long userId, String role, String authToken) {
+        logger.info("Récupération des infos client pour la demande ID: {} par l'utilisateur ID: {} avec rôle: {}",
+                demandeId, userId, role);
+
+        // 1. Récupérer la demande
+        Mono<Long> clientIdDemande = Mono.fromCallable(() -> demandeRepository.findViewById(demandeId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + demandeId)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(DemandeView::clientId);
+
+        return getClientInfoDuClient(clientIdDemande, userId, role, authToken);
+    }
+
+    /**
+     * Vérifie les droits sur le client d'une demande puis récupère ses informations
+     * (lecture de la demande fournie par l'appelant : JPA ici, R2DBC pour le profil "reactive")
+     */
+    Mono<ClientInfoDTO> getClientInfoDuClient(Mono<Long> clientIdDemande, Long userId, String role, String authToken) {
+        return clientIdDemande
+                .map(clientId -> verifierAcces(clientId, userId, role))
+                // 2. Appeler le Service Utilisateurs pour récupérer les infos
+                .flatMap(clientId -> getClientInfo(clientId, authToken));
+    }
+
+    /**
+     * Récupère les informations d'un client (cache, sinon Service Utilisateurs)
+     * @param clientId L'ID du client
+     * @param authToken Le token JWT pour l'authentification auprès du service Utilisateurs
+     * @return Les informations du client (ResourceNotFoundException si indisponibles)
+     */
+    public Mono<ClientInfoDTO> getClientInfo(Long clientId, String authToken) {
+        logger.debug("Infos client demandées pour le client ID: {}", clientId);
+
+        return clientInfoCache.get(clientId, authToken)
+                .doOnNext(response -> logger.debug("Infos client récupérées: {}", response.email()))
+                .onErrorMap(e -> !(e instanceof ResourceNotFoundException), e -> {
+                    logger.error("Erreur lors de l'appel au service Utilisateurs: {}", e.getMessage());
+                    return new ResourceNotFoundException(
+                            "Erreur lors de la récupération des informations du client: " + e.getMessage());
+                })
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(
+                        "Impossible de récupérer les informations du client ID: " + clientId)));
+    }
+
+    /**
+     * Récupère les informations de tous les clients d'une mission (pour Prestataire/Admin)
+     * Les demandes sont lues en une requête, chaque client n'est demandé qu'une fois et les appels
+     * au Service Utilisateurs sont faits en parallèle (au plus clients.info.mission.parallelism à la fois).
+     * Un client indisponible n'empêche pas la réponse : son élément porte alors le motif de l'erreur.
+     * @param missionId L'ID de la mission
+     * @param authToken Le token JWT pour l'authentification auprès du service Utilisateurs
+     * @return Les clients de la mission, dans l'ordre de leur première demande
+     */
+    public Mono<MissionClientsDTO> getClientsByMission(Long missionId, String authToken) {
+        logger.info("Récupération des infos clients de la mission ID: {}", missionId);
+
+        return getClientsDeMission(missionId,
+                Mono.fromCallable(() -> demandeRepository.findClientsByMissionId(missionId))
+                        .subscribeOn(Schedulers.boundedElastic()),
+                authToken);
+    }
+
+    /**
+     * Regroupe les demandes d'une mission par client et récupère les informations de chaque client
+     * (lecture des demandes fournie par l'appelant : JPA ici, R2DBC pour le profil "reactive")
+     */
+    Mono<MissionClientsDTO> getClientsDeMission(Long missionId, Mono<List<DemandeClient>> demandesMission,
+                                                String authToken) {
+        return demandesMission
+                .flatMap(demandes -> {
+                    Map<Long, List<Long>> demandesParClient = new LinkedHashMap<>();
+                    for (DemandeClient demande : demandes) {
+                        demandesParClient.computeIfAbsent(demande.clientId(), id -> new ArrayList<>()).add(demande.id());
+                    }
+
+                    // flatMapSequential : appels concurrents, résultats dans l'ordre des clients
+                    return Flux.fromIterable(demandesParClient.entrySet())
+                            .flatMapSequential(entry -> clientMission(entry.getKey(), entry.getValue(), authToken),
+                                    parallelismeMission)
+                            .collectList()
+                            .map(clients -> new MissionClientsDTO(missionId, demandes.size(), clients));
+                });
+    }
+
+    private Mono<MissionClientDTO> clientMission(Long clientId, List<Long> demandeIds, String authToken) {
+        return clientInfoCache.get(clientId, authToken)
+                .map(client -> new MissionClientDTO(clientId, demandeIds, client, null))
+                .onErrorResume(e -> {
+                    String erreur = e instanceof ResourceNotFoundException
+                            ? e.getMessage()
+                            : "Service Utilisateurs indisponible: " + e.getMessage();
+                    logger.warn("Infos client indisponibles pour le client ID {}: {}", clientId, erreur);
+                    return Mono.just(new MissionClientDTO(clientId, demandeIds, null, erreur));
+                });
+    }
+
+    private Long verifierAcces(Long clientId, Long userId, String role) {
+        if (!"ADMIN".equalsIgnoreCase(role) && !"PRESTATAIRE".equalsIgnoreCase(role)) {
+            // CLIENT ne peut voir que ses propres demandes
+            if (!clientId.equals(userId)) {
+                throw new UnauthorizedException("Vous n'êtes pas autorisé à consulter les informations de ce client");
+            }
+        }
+        return clientId;
+    }
+}
@@ -0,0 +1,206 @@
+package ma.tna.microservice3.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import ma.tna.microservice3.dto.CategorieResponseDTO;
+import ma.tna.microservice3.dto.DemandeResponseDTO;
+import ma.tna.microservice3.mapper.DemandeMapper;
+import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.repository.DemandeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service d'export en flux des demandes de transport
+ * Les demandes sont lues par curseur JDBC et écrites une à une dans la réponse :
+ * la mémoire utilisée reste constante quelle que soit la taille de la table
+ */
+@Service
+public class DemandeExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DemandeExportService.class);
+
+    /**
+     * Nombre de lignes écrites entre deux flush de la réponse
+     */
+    private static final int FLUSH_INTERVAL = 500;
+
+    static final String CSV_HEADER = "id,clientId,volume,poids,natureMarchandise,dateDepart,villeDepart,"
+            + "villeDestination,statutValidation,devisEstime,statutDevis,itineraireAssocieId,missionId,categorieId,"
+            + "categorieNom,dateCreation,dateModification";
+
+    /**
+     * Formats d'export supportés
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final DemandeRepository demandeRepository;
+    private final DemandeMapper demandeMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+
+    public DemandeExportService(
+            DemandeRepository demandeRepository,
+            DemandeMapper demandeMapper,
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            @Value("${demandes.export.timeout:30m}") Duration timeout
+    ) {
+        this.demandeRepository = demandeRepository;
+        this.demandeMapper = demandeMapper;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Durée maximale d'un export (délai de la requête asynchrone qui le transmet)
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Écrit toutes les demandes dans le flux de sortie au format demandé
+     * @param format Le format d'export (NDJSON ou CSV)
+     * @param out Le flux de sortie de la réponse HTTP
+     */
+    @Transactional(readOnly = true)
+    public void exporter(Format format, OutputStream out) throws IOException {
+        logger.info("Début de l'export des demandes au format {}", format);
+        long count;
+
+        try (Stream<Demande> demandes = demandeRepository.streamAll()) {
+            count = switch (format) {
+                case NDJSON -> ecrireNdjson(demandes.iterator(), out);
+                case CSV -> ecrireCsv(demandes.iterator(), out);
+            };
+        }
+
+        logger.info("Export des demandes terminé: {} lignes au format {}", count, format);
+    }
+
+    /**
+     * Une demande JSON par ligne
+     */
+    private long ecrireNdjson(Iterator<Demande> demandes, OutputStream out) throws IOException {
+        long count = 0;
+        ObjectWriter writer = objectMapper.writerFor(DemandeResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        while (demandes.hasNext()) {
+            DemandeResponseDTO dto = detacher(demandes.next());
+            writer.writeValue(generator, dto);
+            generator.writeRaw('\n');
+            if (++count == 1 || count % FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
+        }
+
+        generator.close();
+        return count;
+    }
+
+    /**
+     * En-tête puis une demande par ligne, catégorie aplatie (id et nom)
+     */
+    private long ecrireCsv(Iterator<Demande> demandes, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        while (demandes.hasNext()) {
+            writer.write(ligneCsv(detacher(demandes.next())));
+            if (++count == 1 || count % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Convertit la demande en DTO puis la retire du contexte de persistance
+     */
+    private DemandeResponseDTO detacher(Demande demande) {
+        DemandeResponseDTO dto = demandeMapper.toResponseDTO(demande);
+        entityManager.detach(demande);
+        return dto;
+    }
+
+    /**
+     * Ligne CSV d'une demande, dans l'ordre de {@link #CSV_HEADER}, fin de ligne comprise
+     */
+    static String ligneCsv(DemandeResponseDTO dto) {
+        CategorieResponseDTO categorie = dto.categorie();
+        return csvLine(
+                dto.id(), dto.clientId(), dto.volume(), dto.poids(), dto.natureMarchandise(),
+                dto.dateDepart(), dto.villeDepart(), dto.villeDestination(), dto.statutValidation(),
+                dto.devisEstime(), dto.statutDevis(), dto.itineraireAssocieId(), dto.missionId(),
+                categorie != null ? categorie.idCategorie() : null,
+                categorie != null ? categorie.nom() : null,
+                dto.dateCreation(), dto.dateModification()
+        );
+    }
+
+    private static String csvLine(Object... values) {
+        StringBuilder line = new StringBuilder(256);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                line.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(text);
+            }
+        }
+        return line.append('\n').toString();
+    }
+}
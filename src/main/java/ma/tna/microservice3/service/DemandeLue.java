@@ -0,0 +1,15 @@
+package ma.tna.microservice3.service;
+
+import ma.tna.microservice3.dto.DemandeResponseDTO;
+
+/**
+ * Résultat d'une lecture conditionnelle (If-None-Match) d'une demande
+ * @param etag L'ETag courant de la demande
+ * @param demande La demande, ou null si le client en possède déjà la version courante
+ */
+public record DemandeLue(String etag, DemandeResponseDTO demande) {
+
+    public boolean estModifiee() {
+        return demande != null;
+    }
+}
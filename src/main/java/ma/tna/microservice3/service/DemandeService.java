@@ -1,9 +1,13 @@
 package ma.tna.microservice3.service;
 
-import ma.tna.microservice3.dto.ClientInfoDTO;
 import ma.tna.microservice3.dto.DemandeAssociationDTO;
+import ma.tna.microservice3.dto.DemandeBulkResultDTO;
+import ma.tna.microservice3.dto.DemandePageDTO;
 import ma.tna.microservice3.dto.DemandeRequestDTO;
 import ma.tna.microservice3.dto.DemandeResponseDTO;
+import ma.tna.microservice3.dto.DemandeSearchCriteria;
+import ma.tna.microservice3.dto.TransitionStatutRequestDTO;
+import ma.tna.microservice3.dto.TransitionStatutResultDTO;
 
 import java.util.List;
 
@@ -20,13 +24,25 @@ public interface DemandeService {
      */
     DemandeResponseDTO creerDemande(DemandeRequestDTO dto, Long userId);
 
+    /**
+     * Crée un lot de demandes de transport en une transaction (insertions JDBC par lots)
+     * Chaque élément est validé individuellement : les éléments invalides sont rejetés sans bloquer les autres
+     * @param dtos Les données des demandes
+     * @param userId L'ID de l'utilisateur (client)
+     * @return Le résultat élément par élément (devis calculés en arrière-plan)
+     */
+    DemandeBulkResultDTO creerDemandes(List<DemandeRequestDTO> dtos, Long userId);
+
     /**
      * Valide une demande par le client
      * @param demandeId L'ID de la demande
      * @param userId L'ID de l'utilisateur (client)
+     * @param versionsAttendues Les versions acceptées (If-Match), null si aucune précondition
      * @return La demande validée
+     * @throws ma.tna.microservice3.exception.ConflictException si la demande n'est plus en attente du client
+     * @throws ma.tna.microservice3.exception.PreconditionFailedException si la version ne correspond pas
      */
-    DemandeResponseDTO validerDemandeClient(Long demandeId, Long userId);
+    DemandeResponseDTO validerDemandeClient(Long demandeId, Long userId, List<Long> versionsAttendues);
 
     /**
      * Récupère une demande par son ID (avec vérification des droits selon le rôle)
@@ -37,6 +53,14 @@ public interface DemandeService {
      */
     DemandeResponseDTO getDemandeById(Long demandeId, Long userId, String role);
 
+    /**
+     * Récupère une demande sauf si le client en possède déjà la version courante (If-None-Match)
+     * Les droits de consultation sont vérifiés dans les deux cas
+     * @param ifNoneMatch La valeur de l'en-tête If-None-Match (peut être null)
+     * @return L'ETag courant, et la demande si elle a changé
+     */
+    DemandeLue getDemandeSiModifiee(Long demandeId, Long userId, String role, String ifNoneMatch);
+
     /**
      * Récupère toutes les demandes d'un client
      * @param userId L'ID du client
@@ -64,30 +88,44 @@ public interface DemandeService {
      */
     List<DemandeResponseDTO> getDemandesByMission(Long missionId);
 
+    /**
+     * Recherche paginée (keyset sur dateCreation, id) avec filtres combinés
+     * Un CLIENT est restreint à ses propres demandes, un PRESTATAIRE ne voit pas les demandes en attente client
+     * @param criteria Les critères de filtrage
+     * @param cursor Le curseur de continuation renvoyé par la page précédente (null pour la première page)
+     * @param size La taille de page demandée
+     * @param userId L'ID de l'utilisateur qui fait la requête
+     * @param role Le rôle de l'utilisateur
+     * @return La page de demandes et le curseur de la page suivante
+     */
+    DemandePageDTO rechercherDemandes(DemandeSearchCriteria criteria, String cursor, int size, Long userId, String role);
+
     /**
      * Associe une mission et un itinéraire à une demande
      * @param demandeId L'ID de la demande
      * @param associationDTO Les données d'association (missionId, itineraireId, etc.)
+     * @param versionsAttendues Les versions acceptées (If-Match), null si aucune précondition
      * @return La demande mise à jour
+     * @throws ma.tna.microservice3.exception.PreconditionFailedException si la version ne correspond pas
      */
-    DemandeResponseDTO associerDemande(Long demandeId, DemandeAssociationDTO associationDTO);
+    DemandeResponseDTO associerDemande(Long demandeId, DemandeAssociationDTO associationDTO, List<Long> versionsAttendues);
 
     /**
      * Met à jour le statut d'une demande (Admin uniquement)
      * @param demandeId L'ID de la demande
      * @param nouveauStatut Le nouveau statut
      * @return La demande mise à jour
+     * @throws ma.tna.microservice3.exception.ConflictException si la transition n'est pas autorisée
+     *         ou si le statut a changé entre-temps
      */
     DemandeResponseDTO updateStatut(Long demandeId, String nouveauStatut);
 
     /**
-     * Récupère les informations du client d'une demande depuis le Service Utilisateurs
-     * @param demandeId L'ID de la demande
-     * @param userId L'ID de l'utilisateur qui fait la requête
-     * @param role Le rôle de l'utilisateur
-     * @param authToken Le token JWT pour l'authentification auprès du service Utilisateurs
-     * @return Les informations du client
+     * Change le statut d'un ensemble de demandes par requêtes ensemblistes (Admin uniquement)
+     * Seules les demandes dont le statut actuel autorise la transition sont modifiées
+     * @param requestDTO Le nouveau statut et la sélection (ids, missionId ou filtre)
+     * @return Le nombre et les IDs des demandes modifiées
      */
-    ClientInfoDTO getClientInfoByDemande(Long demandeId, Long userId, String role, String authToken);
+    TransitionStatutResultDTO changerStatutEnMasse(TransitionStatutRequestDTO requestDTO);
 }
 
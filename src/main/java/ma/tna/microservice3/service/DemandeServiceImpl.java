@@ -1,32 +1,52 @@
 package ma.tna.microservice3.service;
 
-import ma.tna.microservice3.dto.ClientInfoDTO;
+import jakarta.validation.Validator;
 import ma.tna.microservice3.dto.CategorieResponseDTO;
 import ma.tna.microservice3.dto.DemandeAssociationDTO;
+import ma.tna.microservice3.dto.DemandeBulkItemDTO;
+import ma.tna.microservice3.dto.DemandeBulkResultDTO;
+import ma.tna.microservice3.dto.DemandePageDTO;
 import ma.tna.microservice3.dto.DemandeRequestDTO;
 import ma.tna.microservice3.dto.DemandeResponseDTO;
+import ma.tna.microservice3.dto.DemandeSearchCriteria;
+import ma.tna.microservice3.dto.TransitionStatutRequestDTO;
+import ma.tna.microservice3.dto.TransitionStatutResultDTO;
 import ma.tna.microservice3.dto.ItineraireResponseDTO;
-import ma.tna.microservice3.dto.TarifResponseDTO;
+import ma.tna.microservice3.exception.BadRequestException;
+import ma.tna.microservice3.exception.PreconditionFailedException;
 import ma.tna.microservice3.exception.ResourceNotFoundException;
 import ma.tna.microservice3.exception.UnauthorizedException;
 import ma.tna.microservice3.mapper.DemandeMapper;
-import ma.tna.microservice3.model.Categorie;
 import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.model.StatutDevis;
+import ma.tna.microservice3.model.StatutTransitions;
 import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.model.TypeEvenement;
 import ma.tna.microservice3.repository.CategorieRepository;
 import ma.tna.microservice3.repository.DemandeRepository;
+import ma.tna.microservice3.repository.DemandeSpecifications;
+import ma.tna.microservice3.repository.projection.DemandeView;
+import ma.tna.microservice3.util.DemandeEtag;
+import ma.tna.microservice3.util.KeysetCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Implémentation du service de gestion des demandes de transport
@@ -37,33 +57,50 @@ public class DemandeServiceImpl implements DemandeService {
 
     private static final Logger logger = LoggerFactory.getLogger(DemandeServiceImpl.class);
 
+    /**
+     * Taille de page maximale pour la recherche paginée
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final DemandeRepository demandeRepository;
     private final CategorieRepository categorieRepository;
     private final DemandeMapper demandeMapper;
-    private final WebClient webClient;
+    private final CategorieCatalogCache catalogCache;
+    private final DevisPipeline devisPipeline;
+    private final OutboxPublisher outboxPublisher;
+    private final DemandeStateMachine demandeStateMachine;
+    private final Validator validator;
+    private final WebClient itinerairesWebClient;
 
     @Value("${service.url.itineraires}")
     private String itinerairesServiceUrl;
 
-    @Value("${service.url.tarification}")
-    private String tarificationServiceUrl;
+    @Value("${demandes.bulk.max-size:500}")
+    private int maxBulkSize;
 
-    @Value("${service.url.matching}")
-    private String matchingServiceUrl;
-
-    @Value("${service.url.utilisateurs}")
-    private String utilisateursServiceUrl;
+    @Value("${demandes.transition.max-size:5000}")
+    private int maxTransitionSize;
 
     public DemandeServiceImpl(
             DemandeRepository demandeRepository,
             CategorieRepository categorieRepository,
             DemandeMapper demandeMapper,
-            WebClient webClient
+            CategorieCatalogCache catalogCache,
+            DevisPipeline devisPipeline,
+            OutboxPublisher outboxPublisher,
+            DemandeStateMachine demandeStateMachine,
+            Validator validator,
+            @Qualifier("itinerairesWebClient") WebClient itinerairesWebClient
     ) {
         this.demandeRepository = demandeRepository;
         this.categorieRepository = categorieRepository;
         this.demandeMapper = demandeMapper;
-        this.webClient = webClient;
+        this.catalogCache = catalogCache;
+        this.devisPipeline = devisPipeline;
+        this.outboxPublisher = outboxPublisher;
+        this.demandeStateMachine = demandeStateMachine;
+        this.validator = validator;
+        this.itinerairesWebClient = itinerairesWebClient;
     }
 
     @Override
@@ -73,47 +110,96 @@ public class DemandeServiceImpl implements DemandeService {
         // 1. Créer et sauvegarder la demande initiale
         Demande demande = demandeMapper.toEntity(dto, userId);
 
-        // 2. Associer la catégorie si fournie
+        // 2. Associer la catégorie si fournie (vérifiée dans le catalogue en mémoire, sans SELECT)
+        CategorieResponseDTO categorie = null;
         if (dto.categorieId() != null && !dto.categorieId().isBlank()) {
-            Categorie categorie = categorieRepository.findById(dto.categorieId())
+            categorie = catalogCache.catalog().findById(dto.categorieId())
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "Catégorie non trouvée avec l'ID: " + dto.categorieId()));
-            demande.setCategorie(categorie);
-            logger.info("Catégorie '{}' associée à la demande", categorie.getNom());
+            demande.setCategorie(categorieRepository.getReferenceById(categorie.idCategorie()));
+            logger.info("Catégorie '{}' associée à la demande", categorie.nom());
         }
 
         demande = demandeRepository.save(demande);
 
-        final Long demandeId = demande.getId();
+        // 3. Le devis est calculé en arrière-plan une fois la demande validée en base (statutDevis = EN_ATTENTE)
+        // L'itinéraire sera associé par un autre microservice via l'endpoint /association
+        devisPipeline.demanderApresCommit();
 
-        try {
-            // L'itinéraire sera associé par un autre microservice via l'endpoint /association
-            // itineraireAssocieId reste null à la création
-
-            // Appel au Service Tarification pour obtenir un devis
-            TarifResponseDTO tarif = appelServiceTarification(
-                    demande.getVolume(),
-                    null
-            );
-
-            if (tarif != null) {
-                demande.setDevisEstime(tarif.montant());
-                logger.info("Devis estimé: {} pour la demande ID: {}", tarif.montant(), demandeId);
+        return demandeMapper.toResponseDTO(demande, categorie);
+    }
+
+    @Override
+    public DemandeBulkResultDTO creerDemandes(List<DemandeRequestDTO> dtos, Long userId) {
+        logger.info("Création d'un lot de {} demandes pour le client ID: {}", dtos.size(), userId);
+
+        if (dtos.isEmpty()) {
+            throw new BadRequestException("Le lot de demandes est vide");
+        }
+        if (dtos.size() > maxBulkSize) {
+            throw new BadRequestException("Un lot ne peut pas dépasser " + maxBulkSize + " demandes");
+        }
+
+        // 1. Valider chaque élément et résoudre les catégories dans le catalogue en mémoire (sans SELECT)
+        CategorieCatalog catalog = catalogCache.catalog();
+        DemandeBulkItemDTO[] resultats = new DemandeBulkItemDTO[dtos.size()];
+        List<Integer> positions = new ArrayList<>();
+        List<Demande> demandes = new ArrayList<>();
+        List<CategorieResponseDTO> categories = new ArrayList<>();
+
+        for (int i = 0; i < dtos.size(); i++) {
+            DemandeRequestDTO dto = dtos.get(i);
+            if (dto == null) {
+                resultats[i] = DemandeBulkItemDTO.rejetee(i, List.of("La demande ne peut pas être null"));
+                continue;
             }
 
-            // 4. Sauvegarder la demande avec les informations mises à jour
-            demande = demandeRepository.save(demande);
+            List<String> erreurs = validator.validate(dto).stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+
+            CategorieResponseDTO categorie = null;
+            if (dto.categorieId() != null && !dto.categorieId().isBlank()) {
+                categorie = catalog.findById(dto.categorieId()).orElse(null);
+                if (categorie == null) {
+                    erreurs.add("categorieId: Catégorie non trouvée avec l'ID: " + dto.categorieId());
+                }
+            }
 
-        } catch (Exception e) {
-            logger.error("Erreur lors des appels inter-services pour la demande ID: {}", demandeId, e);
-            // La demande est quand même créée, mais sans itinéraire ni devis
+            if (!erreurs.isEmpty()) {
+                resultats[i] = DemandeBulkItemDTO.rejetee(i, erreurs);
+                continue;
+            }
+
+            Demande demande = demandeMapper.toEntity(dto, userId);
+            if (categorie != null) {
+                demande.setCategorie(categorieRepository.getReferenceById(categorie.idCategorie()));
+            }
+            positions.add(i);
+            demandes.add(demande);
+            categories.add(categorie);
         }
 
-        return demandeMapper.toResponseDTO(demande);
+        // 2. Insertions par lots : identifiants pré-alloués par la séquence, INSERT groupés (hibernate.jdbc.batch_size)
+        List<Demande> creees = demandeRepository.saveAll(demandes);
+        for (int j = 0; j < creees.size(); j++) {
+            int index = positions.get(j);
+            resultats[index] = DemandeBulkItemDTO.creee(index, demandeMapper.toResponseDTO(creees.get(j), categories.get(j)));
+        }
+
+        // 3. Les devis du lot sont calculés en arrière-plan (appel groupé au Service Tarification)
+        if (!creees.isEmpty()) {
+            devisPipeline.demanderApresCommit();
+        }
+
+        logger.info("Lot du client ID: {} : {} demandes créées, {} rejetées",
+                userId, creees.size(), dtos.size() - creees.size());
+        return new DemandeBulkResultDTO(dtos.size(), creees.size(), dtos.size() - creees.size(), List.of(resultats));
     }
 
     @Override
-    public DemandeResponseDTO validerDemandeClient(Long demandeId, Long userId) {
+    public DemandeResponseDTO validerDemandeClient(Long demandeId, Long userId, List<Long> versionsAttendues) {
         logger.info("Validation de la demande ID: {} par le client ID: {}", demandeId, userId);
 
         // 1. Récupérer la demande et vérifier l'autorisation
@@ -123,19 +209,19 @@ public class DemandeServiceImpl implements DemandeService {
         if (!demande.getClientId().equals(userId)) {
             throw new UnauthorizedException("Vous n'êtes pas autorisé à valider cette demande");
         }
+        verifierVersion(demande, versionsAttendues);
 
-        // 2. Mettre à jour le statut de validation
-        demande.setStatutValidation(StatutValidation.VALIDEE_CLIENT);
-        demande = demandeRepository.save(demande);
-
-        // 3. Appel asynchrone au Service Matching
-        try {
-            appelServiceMatching(demandeId);
-            logger.info("Appel au service Matching effectué pour la demande ID: {}", demandeId);
-        } catch (Exception e) {
-            logger.error("Erreur lors de l'appel au service Matching pour la demande ID: {}", demandeId, e);
+        // Le client accepte un devis : il doit avoir été calculé
+        if (demande.getStatutDevis() == StatutDevis.EN_ATTENTE) {
+            throw new BadRequestException("Le devis de la demande " + demandeId + " est en cours de calcul");
         }
 
+        // 2. Transition EN_ATTENTE_CLIENT → VALIDEE_CLIENT (UPDATE conditionnel sur le statut lu)
+        demande = demandeStateMachine.transitionner(demande, StatutValidation.VALIDEE_CLIENT);
+
+        // 3. Notification du Service Matching via l'outbox (livrée après le commit, avec nouveaux essais)
+        outboxPublisher.publier(TypeEvenement.DEMANDE_VALIDEE, demandeId, Map.of("demandeId", demandeId));
+
         return demandeMapper.toResponseDTO(demande);
     }
 
@@ -144,29 +230,61 @@ public class DemandeServiceImpl implements DemandeService {
     public DemandeResponseDTO getDemandeById(Long demandeId, Long userId, String role) {
         logger.info("Récupération de la demande ID: {} par l'utilisateur ID: {} avec rôle: {}", demandeId, userId, role);
 
-        Demande demande = demandeRepository.findById(demandeId)
+        DemandeView demande = demandeRepository.findViewById(demandeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + demandeId));
+        verifierLecture(demande, userId, role);
+
+        return demandeMapper.toResponseDTO(demande);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DemandeLue getDemandeSiModifiee(Long demandeId, Long userId, String role, String ifNoneMatch) {
+        DemandeView demande = demandeRepository.findViewById(demandeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + demandeId));
+        verifierLecture(demande, userId, role);
+
+        // Version déjà connue du client : ni conversion en DTO ni sérialisation
+        String etag = DemandeEtag.of(demande);
+        if (DemandeEtag.correspond(ifNoneMatch, etag)) {
+            return new DemandeLue(etag, null);
+        }
+        return new DemandeLue(etag, demandeMapper.toResponseDTO(demande));
+    }
 
+    /**
+     * Vérifie que l'utilisateur peut consulter la demande
+     */
+    private void verifierLecture(DemandeView demande, Long userId, String role) {
         // ADMIN peut voir toutes les demandes
         if ("ADMIN".equalsIgnoreCase(role)) {
-            return demandeMapper.toResponseDTO(demande);
+            return;
         }
 
         // PRESTATAIRE peut voir les demandes de ses missions
         if ("PRESTATAIRE".equalsIgnoreCase(role)) {
             // Pour l'instant, on autorise les prestataires à voir toutes les demandes validées
             // Plus tard, on pourra filtrer par mission assignée au prestataire
-            if (demande.getStatutValidation() != StatutValidation.EN_ATTENTE_CLIENT) {
-                return demandeMapper.toResponseDTO(demande);
+            if (demande.statutValidation() != StatutValidation.EN_ATTENTE_CLIENT) {
+                return;
             }
         }
 
         // CLIENT ne peut voir que SES demandes
-        if (!demande.getClientId().equals(userId)) {
+        if (!demande.clientId().equals(userId)) {
             throw new UnauthorizedException("Vous n'êtes pas autorisé à consulter cette demande");
         }
+    }
 
-        return demandeMapper.toResponseDTO(demande);
+    /**
+     * Vérifie la précondition If-Match d'une écriture
+     * @param versionsAttendues Les versions acceptées (null si aucune précondition)
+     */
+    private static void verifierVersion(Demande demande, List<Long> versionsAttendues) {
+        if (versionsAttendues != null && !versionsAttendues.contains(demande.getVersion())) {
+            throw new PreconditionFailedException("La demande " + demande.getId()
+                    + " a été modifiée (version actuelle: " + demande.getVersion() + "), rechargez-la avant de réessayer");
+        }
     }
 
     @Override
@@ -174,7 +292,7 @@ public class DemandeServiceImpl implements DemandeService {
     public List<DemandeResponseDTO> getDemandesByClient(Long userId) {
         logger.info("Récupération des demandes pour le client ID: {}", userId);
 
-        List<Demande> demandes = demandeRepository.findByClientId(userId);
+        List<DemandeView> demandes = demandeRepository.findViewsByClientId(userId);
 
         return demandes.stream()
                 .map(demandeMapper::toResponseDTO)
@@ -186,7 +304,7 @@ public class DemandeServiceImpl implements DemandeService {
     public List<DemandeResponseDTO> getAllDemandes() {
         logger.info("Récupération de TOUTES les demandes (Admin)");
 
-        List<Demande> demandes = demandeRepository.findAll();
+        List<DemandeView> demandes = demandeRepository.findAllViews();
 
         return demandes.stream()
                 .map(demandeMapper::toResponseDTO)
@@ -199,7 +317,7 @@ public class DemandeServiceImpl implements DemandeService {
         logger.info("Récupération des demandes par statut: {}", statut);
 
         StatutValidation statutValidation = StatutValidation.valueOf(statut.toUpperCase());
-        List<Demande> demandes = demandeRepository.findByStatutValidation(statutValidation);
+        List<DemandeView> demandes = demandeRepository.findViewsByStatutValidation(statutValidation);
 
         return demandes.stream()
                 .map(demandeMapper::toResponseDTO)
@@ -211,13 +329,60 @@ public class DemandeServiceImpl implements DemandeService {
     public List<DemandeResponseDTO> getDemandesByMission(Long missionId) {
         logger.info("Récupération des demandes pour la mission ID: {}", missionId);
 
-        List<Demande> demandes = demandeRepository.findByMissionId(missionId);
+        List<DemandeView> demandes = demandeRepository.findViewsByMissionId(missionId);
 
         return demandes.stream()
                 .map(demandeMapper::toResponseDTO)
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public DemandePageDTO rechercherDemandes(DemandeSearchCriteria criteria, String cursor, int size, Long userId, String role) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("La taille de page doit être comprise entre 1 et " + MAX_PAGE_SIZE);
+        }
+
+        // CLIENT ne peut rechercher que parmi SES demandes
+        if (!"ADMIN".equalsIgnoreCase(role) && !"PRESTATAIRE".equalsIgnoreCase(role)) {
+            criteria = criteria.pourClient(userId);
+        }
+        logger.info("Recherche paginée des demandes par l'utilisateur ID: {} avec rôle: {} - critères: {}", userId, role, criteria);
+
+        Specification<Demande> spec = DemandeSpecifications.matching(criteria);
+
+        // PRESTATAIRE ne voit pas les demandes encore en attente du client
+        if ("PRESTATAIRE".equalsIgnoreCase(role)) {
+            spec = spec.and(DemandeSpecifications.statutDifferentDe(StatutValidation.EN_ATTENTE_CLIENT));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(DemandeSpecifications.apres(KeysetCursor.decode(cursor)));
+        }
+
+        // Lire un élément de plus que demandé pour savoir s'il existe une page suivante
+        // project("categorie") charge la catégorie par jointure (graphe d'entité) : pas de N+1 au mapping
+        List<Demande> demandes = demandeRepository.findBy(spec, query -> query
+                .project("categorie")
+                .sortBy(DemandeSpecifications.KEYSET_SORT)
+                .limit(size + 1)
+                .all());
+
+        boolean hasNext = demandes.size() > size;
+        List<Demande> page = hasNext ? demandes.subList(0, size) : demandes;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Demande last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getDateCreation(), last.getId()).encode();
+        }
+
+        List<DemandeResponseDTO> content = page.stream()
+                .map(demandeMapper::toResponseDTO)
+                .toList();
+
+        return new DemandePageDTO(content, content.size(), hasNext, nextCursor);
+    }
+
     @Override
     public DemandeResponseDTO updateStatut(Long demandeId, String nouveauStatut) {
         logger.info("Mise à jour du statut de la demande ID: {} vers: {}", demandeId, nouveauStatut);
@@ -225,14 +390,89 @@ public class DemandeServiceImpl implements DemandeService {
         Demande demande = demandeRepository.findById(demandeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + demandeId));
 
-        StatutValidation statutValidation = StatutValidation.valueOf(nouveauStatut.toUpperCase());
-        demande.setStatutValidation(statutValidation);
-        demande = demandeRepository.save(demande);
+        demande = demandeStateMachine.transitionner(demande, parseStatut(nouveauStatut));
 
         logger.info("Statut de la demande ID: {} mis à jour vers: {}", demandeId, nouveauStatut);
         return demandeMapper.toResponseDTO(demande);
     }
 
+    @Override
+    public TransitionStatutResultDTO changerStatutEnMasse(TransitionStatutRequestDTO requestDTO) {
+        StatutValidation cible = parseStatut(requestDTO.nouveauStatut());
+        logger.info("Changement de statut en masse vers: {}", cible);
+
+        // 1. Sélection (exactement un critère) et garde de transition : seuls les statuts précédents autorisés
+        Specification<Demande> selection = selectionTransition(requestDTO);
+        Set<StatutValidation> sources = StatutTransitions.precedents(cible);
+        if (sources.isEmpty()) {
+            throw new BadRequestException("Aucune transition ne mène au statut " + cible);
+        }
+        Specification<Demande> spec = selection.and(DemandeSpecifications.statutDans(sources));
+        if (cible == StatutValidation.VALIDEE_CLIENT) {
+            // Même règle que la validation unitaire : le devis doit être calculé
+            spec = spec.and(DemandeSpecifications.devisDifferentDe(StatutDevis.EN_ATTENTE));
+        }
+
+        // 2. Verrouillage des lignes retenues puis UPDATE ... WHERE id IN (...)
+        List<Long> ids = demandeRepository.verrouillerIds(spec, maxTransitionSize + 1);
+        if (ids.size() > maxTransitionSize) {
+            throw new BadRequestException("La sélection dépasse " + maxTransitionSize + " demandes, affinez les critères");
+        }
+        int modifiees = ids.isEmpty() ? 0 : demandeRepository.changerStatut(ids, cible, LocalDateTime.now());
+
+        // 3. Un seul événement outbox pour l'ensemble des demandes modifiées
+        if (!ids.isEmpty()) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("nouveauStatut", cible.name());
+            payload.put("demandeIds", ids);
+            if (requestDTO.missionId() != null) {
+                payload.put("missionId", requestDTO.missionId());
+            }
+            outboxPublisher.publier(TypeEvenement.DEMANDES_STATUT_MODIFIE, null, payload);
+        }
+
+        List<Long> ignorees = List.of();
+        if (requestDTO.ids() != null && !requestDTO.ids().isEmpty()) {
+            Set<Long> modifies = new HashSet<>(ids);
+            ignorees = requestDTO.ids().stream().distinct().filter(id -> !modifies.contains(id)).toList();
+        }
+
+        logger.info("{} demandes passées au statut {} ({} ignorées)", modifiees, cible, ignorees.size());
+        return new TransitionStatutResultDTO(cible.name(), modifiees, ids, ignorees);
+    }
+
+    /**
+     * Construit la sélection d'un changement de statut en masse (exactement un critère)
+     */
+    private Specification<Demande> selectionTransition(TransitionStatutRequestDTO requestDTO) {
+        boolean parIds = requestDTO.ids() != null && !requestDTO.ids().isEmpty();
+        boolean parMission = requestDTO.missionId() != null;
+        boolean parFiltre = requestDTO.filtre() != null;
+        if ((parIds ? 1 : 0) + (parMission ? 1 : 0) + (parFiltre ? 1 : 0) != 1) {
+            throw new BadRequestException("Indiquez exactement un critère de sélection : ids, missionId ou filtre");
+        }
+
+        if (parIds) {
+            if (requestDTO.ids().size() > maxTransitionSize) {
+                throw new BadRequestException("La liste ne peut pas dépasser " + maxTransitionSize + " IDs");
+            }
+            return DemandeSpecifications.idDans(requestDTO.ids());
+        }
+        if (parMission) {
+            return DemandeSpecifications.matching(new DemandeSearchCriteria(
+                    null, null, requestDTO.missionId(), null, null, null, null, null));
+        }
+        return DemandeSpecifications.matching(requestDTO.filtre());
+    }
+
+    private static StatutValidation parseStatut(String statut) {
+        try {
+            return StatutValidation.valueOf(statut.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Statut de validation inconnu: " + statut);
+        }
+    }
+
     // ============ Méthodes privées pour les appels inter-services ============
 
     /**
@@ -253,7 +493,7 @@ public class DemandeServiceImpl implements DemandeService {
 
             logger.debug("Request body pour MS4: {}", requestBody);
 
-            return webClient.post()
+            return itinerairesWebClient.post()
                     .uri(itinerairesServiceUrl + "/address")
                     .bodyValue(requestBody)
                     .retrieve()
@@ -280,12 +520,14 @@ public class DemandeServiceImpl implements DemandeService {
     }
 
     @Override
-    public DemandeResponseDTO associerDemande(Long demandeId, DemandeAssociationDTO associationDTO) {
+    public DemandeResponseDTO associerDemande(Long demandeId, DemandeAssociationDTO associationDTO,
+                                              List<Long> versionsAttendues) {
         logger.info("Association de la demande ID: {} avec mission ID: {} et itinéraire ID: {}",
                 demandeId, associationDTO.missionId(), associationDTO.itineraireAssocieId());
 
         Demande demande = demandeRepository.findById(demandeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + demandeId));
+        verifierVersion(demande, versionsAttendues);
 
         // Mettre à jour la mission
         demande.setMissionId(associationDTO.missionId());
@@ -295,135 +537,11 @@ public class DemandeServiceImpl implements DemandeService {
             demande.setItineraireAssocieId(associationDTO.itineraireAssocieId());
         }
 
-        demande = demandeRepository.save(demande);
+        // Flush immédiat : la réponse (et son ETag) porte la nouvelle version
+        demande = demandeRepository.saveAndFlush(demande);
         logger.info("Demande ID: {} mise à jour avec succès", demandeId);
 
         return demandeMapper.toResponseDTO(demande);
     }
-
-    /**
-     * Appel au Service Tarification pour obtenir un devis
-     * @param volume Volume de la marchandise en m³
-     * @param distanceKm Distance en kilomètres (depuis le service itinéraires)
-     */
-    private TarifResponseDTO appelServiceTarification(Double volume, Double distanceKm) {
-        try {
-            logger.debug("Appel au service Tarification: volume={}, distanceKm={}", volume, distanceKm);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("volume", volume);
-            if (distanceKm != null) {
-                requestBody.put("distanceKm", distanceKm);
-            }
-
-            return webClient.post()
-                    .uri(tarificationServiceUrl + "/calculer")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(TarifResponseDTO.class)
-                    .onErrorResume(e -> {
-                        logger.error("Erreur lors de l'appel au service Tarification", e);
-                        // Retourner un devis par défaut en cas d'erreur (basé sur volume et distance)
-                        BigDecimal defaultDevis = calculateDefaultDevis(volume, distanceKm);
-                        return Mono.just(new TarifResponseDTO(
-                                defaultDevis,
-                                "Devis estimé (service indisponible)",
-                                null
-                        ));
-                    })
-                    .block();
-
-        } catch (Exception e) {
-            logger.error("Exception lors de l'appel au service Tarification", e);
-            BigDecimal defaultDevis = calculateDefaultDevis(volume, distanceKm);
-            return new TarifResponseDTO(defaultDevis, "Devis estimé (erreur)", null);
-        }
-    }
-
-    /**
-     * Calcul d'un devis par défaut basé sur le volume et la distance
-     */
-    private BigDecimal calculateDefaultDevis(Double volume, Double distanceKm) {
-        double basePrice = 50.0; // Prix de base
-        double volumeRate = volume != null ? volume * 5.0 : 0; // 5 MAD par m³
-        double distanceRate = distanceKm != null ? distanceKm * 2.0 : 0; // 2 MAD par km
-        return BigDecimal.valueOf(basePrice + volumeRate + distanceRate);
-    }
-
-    /**
-     * Appel au Service Matching pour trouver un transporteur
-     */
-    private void appelServiceMatching(Long demandeId) {
-        try {
-            logger.debug("Appel au service Matching pour la demande ID: {}", demandeId);
-
-            webClient.post()
-                    .uri(matchingServiceUrl + "/rechercher")
-                    .bodyValue(Map.of("demandeId", demandeId))
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .subscribe(
-                            response -> logger.info("Service Matching appelé avec succès: {}", response),
-                            error -> logger.error("Erreur lors de l'appel au service Matching", error)
-                    );
-
-        } catch (Exception e) {
-            logger.error("Exception lors de l'appel au service Matching", e);
-        }
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public ClientInfoDTO getClientInfoByDemande(Long demandeId, Long userId, String role, String authToken) {
-        logger.info("Récupération des infos client pour la demande ID: {} par l'utilisateur ID: {} avec rôle: {}", 
-                demandeId, userId, role);
-
-        // 1. Récupérer la demande et vérifier les droits
-        Demande demande = demandeRepository.findById(demandeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + demandeId));
-
-        // Vérifier les droits d'accès
-        if (!"ADMIN".equalsIgnoreCase(role) && !"PRESTATAIRE".equalsIgnoreCase(role)) {
-            // CLIENT ne peut voir que ses propres demandes
-            if (!demande.getClientId().equals(userId)) {
-                throw new UnauthorizedException("Vous n'êtes pas autorisé à consulter les informations de ce client");
-            }
-        }
-
-        Long clientId = demande.getClientId();
-
-        // 2. Appeler le Service Utilisateurs pour récupérer les infos
-        try {
-            logger.info("Appel au service Utilisateurs pour le client ID: {}", clientId);
-
-            // L'URL du service utilisateurs est: http://172.30.80.11:31019/account
-            // L'endpoint est: GET /users/{id}/
-            String url = utilisateursServiceUrl.replace("/account", "") + "/account/users/" + clientId + "/";
-
-            ClientInfoDTO clientInfo = webClient.get()
-                    .uri(url)
-                    .header("Authorization", authToken)
-                    .retrieve()
-                    .bodyToMono(ClientInfoDTO.class)
-                    .doOnNext(response -> logger.info("Infos client récupérées: {}", response.email()))
-                    .onErrorResume(e -> {
-                        logger.error("Erreur lors de l'appel au service Utilisateurs: {}", e.getMessage());
-                        return Mono.empty();
-                    })
-                    .block();
-
-            if (clientInfo == null) {
-                throw new ResourceNotFoundException("Impossible de récupérer les informations du client ID: " + clientId);
-            }
-
-            return clientInfo;
-
-        } catch (ResourceNotFoundException e) {
-            throw e;
-        } catch (Exception e) {
-            logger.error("Exception lors de l'appel au service Utilisateurs", e);
-            throw new ResourceNotFoundException("Erreur lors de la récupération des informations du client: " + e.getMessage());
-        }
-    }
 }
 
@@ -0,0 +1,70 @@
+package ma.tna.microservice3.service;
+
+import ma.tna.microservice3.exception.ConflictException;
+import ma.tna.microservice3.exception.ResourceNotFoundException;
+import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.model.StatutTransitions;
+import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.repository.DemandeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Applique les transitions de statut de validation d'une demande
+ * La table des transitions (StatutTransitions) est vérifiée avant d'écrire, puis l'écriture est un UPDATE
+ * conditionnel sur le statut et la version lus : deux transitions concurrentes (client et prestataire) ne peuvent pas
+ * réussir toutes les deux, sans verrou de ligne ni mise à jour perdue
+ */
+@Component
+public class DemandeStateMachine {
+
+    private static final Logger logger = LoggerFactory.getLogger(DemandeStateMachine.class);
+
+    private final DemandeRepository demandeRepository;
+
+    public DemandeStateMachine(DemandeRepository demandeRepository) {
+        this.demandeRepository = demandeRepository;
+    }
+
+    /**
+     * Vérifie qu'une transition est autorisée par la table des transitions
+     * @throws ConflictException si la transition n'est pas autorisée depuis le statut actuel
+     */
+    public void verifier(StatutValidation source, StatutValidation cible) {
+        if (!StatutTransitions.estAutorisee(source, cible)) {
+            throw new ConflictException("Transition non autorisée: " + source + " → " + cible
+                    + " (statuts possibles: " + StatutTransitions.suivants(source) + ")");
+        }
+    }
+
+    /**
+     * Fait passer une demande au statut cible
+     * @param demande La demande lue (son statut et sa version sont ceux attendus par l'UPDATE)
+     * @param cible Le nouveau statut
+     * @return La demande relue après la transition
+     * @throws ConflictException si la transition n'est pas autorisée ou si la demande a changé entre-temps
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Demande transitionner(Demande demande, StatutValidation cible) {
+        StatutValidation source = demande.getStatutValidation();
+        verifier(source, cible);
+
+        int modifiees = demandeRepository.changerStatutSi(demande.getId(), source, demande.getVersion(), cible,
+                LocalDateTime.now());
+        if (modifiees == 0) {
+            logger.info("Transition {} → {} de la demande ID: {} perdue face à une modification concurrente",
+                    source, cible, demande.getId());
+            throw new ConflictException("La demande " + demande.getId()
+                    + " a été modifiée simultanément, rechargez-la avant de réessayer");
+        }
+
+        logger.debug("Demande ID: {} passée de {} à {}", demande.getId(), source, cible);
+        return demandeRepository.findById(demande.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + demande.getId()));
+    }
+}
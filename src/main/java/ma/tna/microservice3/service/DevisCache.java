@@ -0,0 +1,110 @@
+package ma.tna.microservice3.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ma.tna.microservice3.client.ParametresDevis;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Devis du service Tarification mémorisés par paramètres normalisés
+ * Le service Tarification est toujours appelé avec les valeurs réelles de la demande ; la normalisation ne sert
+ * qu'à la clé : le volume est ramené au palier le plus proche (devis.cache.volume-step, 0 = valeur exacte),
+ * le palier étant l'écart toléré entre la demande et celle dont le devis est réutilisé.
+ * La clé ne contient que ce que le service Tarification tarifie (volume, distance exacte si elle est fournie :
+ * les demandes n'en portent pas aujourd'hui) et la version des tarifs ;
+ * quand une nouvelle version est constatée, les devis mémorisés sont abandonnés.
+ */
+@Component
+public class DevisCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DevisCache.class);
+
+    private final boolean actif;
+    private final double pasVolume;
+    private final Cache<Cle, BigDecimal> cache;
+    private final AtomicReference<String> version;
+
+    public DevisCache(
+            MeterRegistry meterRegistry,
+            @Value("${devis.cache.enabled:true}") boolean actif,
+            @Value("${devis.cache.max-size:10000}") long maxSize,
+            @Value("${devis.cache.ttl:1h}") Duration ttl,
+            @Value("${devis.cache.volume-step:0.1}") double pasVolume,
+            @Value("${tarification.version:initiale}") String version
+    ) {
+        this.actif = actif;
+        this.pasVolume = pasVolume;
+        this.version = new AtomicReference<>(version);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "devis");
+    }
+
+    public boolean estActif() {
+        return actif;
+    }
+
+    /**
+     * Devis mémorisé pour des paramètres proches, dans la version courante des tarifs
+     * @return Le montant, ou null s'il n'est pas en cache
+     */
+    public BigDecimal get(ParametresDevis parametres) {
+        return actif ? cache.getIfPresent(cle(parametres, version.get())) : null;
+    }
+
+    /**
+     * Mémorise le devis calculé par le service Tarification pour les paramètres réels d'une demande
+     * @param versionTarifs Version annoncée dans la réponse (null si non communiquée)
+     */
+    public void put(ParametresDevis parametres, BigDecimal montant, String versionTarifs) {
+        if (!actif) {
+            return;
+        }
+        constaterVersion(versionTarifs);
+        cache.put(cle(parametres, versionTarifs != null ? versionTarifs : version.get()), montant);
+    }
+
+    /**
+     * Prend acte de la version des tarifs du service Tarification (réponse de devis ou vérification périodique)
+     * Une version différente de la courante abandonne tous les devis mémorisés
+     * @param versionTarifs Version constatée (null : ignorée)
+     */
+    public void constaterVersion(String versionTarifs) {
+        String courante = version.get();
+        if (versionTarifs != null && !versionTarifs.equals(courante) && version.compareAndSet(courante, versionTarifs)) {
+            cache.invalidateAll();
+            logger.info("Tarifs du service Tarification en version {} (précédente: {}), devis mémorisés abandonnés",
+                    versionTarifs, courante);
+        }
+    }
+
+    private Cle cle(ParametresDevis parametres, String versionTarifs) {
+        return new Cle(palier(parametres.volume(), pasVolume), parametres.distanceKm(), versionTarifs);
+    }
+
+    private static Double palier(Double valeur, double pas) {
+        if (valeur == null || pas <= 0) {
+            return valeur;
+        }
+        // Multiplication décimale : 7 paliers de 0.1 donnent 0.7, pas 0.7000000000000001
+        return BigDecimal.valueOf(Math.round(valeur / pas)).multiply(BigDecimal.valueOf(pas)).doubleValue();
+    }
+
+    /**
+     * Champs envoyés au service Tarification (voir TarificationClient), volume ramené à son palier
+     */
+    private record Cle(Double volume, Double distanceKm, String version) {
+    }
+}
@@ -0,0 +1,331 @@
+package ma.tna.microservice3.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import ma.tna.microservice3.client.ParametresDevis;
+import ma.tna.microservice3.client.TarificationClient;
+import ma.tna.microservice3.dto.TarifResponseDTO;
+import ma.tna.microservice3.model.StatutDevis;
+import ma.tna.microservice3.repository.DemandeRepository;
+import ma.tna.microservice3.repository.projection.DevisEnAttente;
+import ma.tna.microservice3.util.ThreadFactories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Calcul des devis en arrière-plan
+ * La création d'une demande est validée sans attendre le service Tarification ; les demandes
+ * dont le devis est EN_ATTENTE sont traitées par lots sur un thread dédié :
+ * lecture du lot, appel Tarification groupé (ou unitaires en parallèle, sans connexion JDBC ouverte),
+ * puis écriture des devis dans une transaction courte.
+ * Un passage est déclenché après chaque création, et périodiquement pour reprendre les oublis
+ * (redémarrage, lot en échec). La mise à jour est conditionnelle : une demande dont le devis
+ * a déjà été enregistré (par une autre instance) n'est pas modifiée.
+ * En mode de tarification locale, les devis sont calculés par la grille tarifaire sans appel distant ;
+ * sinon la grille fournit le devis par défaut quand le service Tarification est indisponible.
+ * Les devis du service Tarification sont mémorisés par paramètres normalisés ({@link DevisCache}) ;
+ * la version des tarifs est vérifiée périodiquement pour abandonner les devis d'une version dépassée.
+ */
+@Component
+public class DevisPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(DevisPipeline.class);
+
+    private final DemandeRepository demandeRepository;
+    private final TarificationClient tarificationClient;
+    private final TarificationLocale tarificationLocale;
+    private final DevisCache devisCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter devisCalcules;
+    private final Counter devisParDefaut;
+    private final Timer dureeLot;
+
+    private final ExecutorService executor;
+    private final AtomicBoolean passagePlanifie = new AtomicBoolean();
+
+    @Value("${devis.pipeline.batch-size:50}")
+    private int batchSize;
+
+    @Value("${devis.pipeline.concurrency:8}")
+    private int concurrency;
+
+    @Value("${devis.pipeline.batch-timeout:30s}")
+    private Duration batchTimeout;
+
+    @Value("${devis.pipeline.batch-call:true}")
+    private boolean appelGroupe;
+
+    private final AtomicBoolean appelGroupeSupporte = new AtomicBoolean(true);
+
+    private final AtomicBoolean versionSupportee = new AtomicBoolean(true);
+
+    public DevisPipeline(
+            DemandeRepository demandeRepository,
+            TarificationClient tarificationClient,
+            TarificationLocale tarificationLocale,
+            DevisCache devisCache,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.executor = Executors.newSingleThreadExecutor(ThreadFactories.named("devis-pipeline", virtualThreads));
+        this.demandeRepository = demandeRepository;
+        this.tarificationClient = tarificationClient;
+        this.tarificationLocale = tarificationLocale;
+        this.devisCache = devisCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.devisCalcules = Counter.builder("demandes.devis.pipeline.devis")
+                .description("Devis enregistrés par le calcul en arrière-plan")
+                .tag("statut", StatutDevis.CALCULE.name())
+                .register(meterRegistry);
+        this.devisParDefaut = Counter.builder("demandes.devis.pipeline.devis")
+                .description("Devis enregistrés par le calcul en arrière-plan")
+                .tag("statut", StatutDevis.PAR_DEFAUT.name())
+                .register(meterRegistry);
+        this.dureeLot = Timer.builder("demandes.devis.pipeline.lot")
+                .description("Durée de traitement d'un lot de devis")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Demande un passage du pipeline une fois la transaction courante validée
+     * (sans transaction active, le passage est demandé immédiatement)
+     */
+    public void demanderApresCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    demander();
+                }
+            });
+        } else {
+            demander();
+        }
+    }
+
+    /**
+     * Demande un passage du pipeline ; les demandes reçues pendant un passage en déclenchent un seul suivant
+     */
+    public void demander() {
+        if (passagePlanifie.compareAndSet(false, true)) {
+            executor.execute(this::traiter);
+        }
+    }
+
+    /**
+     * Reprise périodique des devis restés en attente
+     */
+    @Scheduled(fixedDelayString = "${devis.pipeline.interval:30s}", initialDelayString = "${devis.pipeline.interval:30s}")
+    public void reprendre() {
+        demander();
+    }
+
+    /**
+     * Vérification périodique de la version des tarifs du service Tarification : les devis servis depuis
+     * le cache n'appellent pas le service, un changement de tarifs doit donc être constaté à part
+     */
+    @Scheduled(fixedDelayString = "${devis.cache.version-check-interval:1m}",
+            initialDelayString = "${devis.cache.version-check-interval:1m}")
+    public void verifierVersionTarifs() {
+        if (tarificationLocale.estPrimaire() || !devisCache.estActif() || !versionSupportee.get()) {
+            return;
+        }
+        // Sans blocage : le thread des tâches planifiées est partagé
+        tarificationClient.version().subscribe(devisCache::constaterVersion, e -> {
+            if (e instanceof WebClientResponseException.NotFound
+                    || e instanceof WebClientResponseException.MethodNotAllowed) {
+                // Service Tarification sans endpoint de version : seules les réponses de devis la portent
+                versionSupportee.set(false);
+                logger.warn("Version des tarifs non exposée par le service Tarification, "
+                        + "devis mémorisés renouvelés au bout de devis.cache.ttl");
+            } else {
+                logger.debug("Version des tarifs non vérifiée: {}", e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdownNow();
+    }
+
+    private void traiter() {
+        // Réarmé avant le traitement : une création pendant ce passage en planifie un autre
+        passagePlanifie.set(false);
+        try {
+            int traites;
+            do {
+                traites = dureeLot.recordCallable(this::traiterLot);
+            } while (traites == batchSize);
+        } catch (Exception e) {
+            logger.error("Erreur lors du calcul des devis en attente, nouvel essai au prochain passage", e);
+        }
+    }
+
+    /**
+     * Traite un lot de demandes en attente de devis
+     * @return Le nombre de demandes lues dans le lot
+     */
+    private int traiterLot() {
+        List<DevisEnAttente> lot = demandeRepository.findDevisEnAttente(
+                StatutDevis.EN_ATTENTE, PageRequest.of(0, batchSize));
+        if (lot.isEmpty()) {
+            return 0;
+        }
+        logger.debug("Calcul de {} devis en attente", lot.size());
+
+        List<DevisResultat> resultats = calculerLot(lot).block(batchTimeout);
+
+        if (resultats == null || resultats.isEmpty()) {
+            return lot.size();
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        Integer enregistres = transactionTemplate.execute(status -> {
+            int count = 0;
+            for (DevisResultat resultat : resultats) {
+                count += demandeRepository.enregistrerDevis(resultat.demandeId(), resultat.montant(),
+                        resultat.statut(), StatutDevis.EN_ATTENTE, maintenant);
+            }
+            return count;
+        });
+
+        resultats.forEach(resultat -> (resultat.statut() == StatutDevis.CALCULE ? devisCalcules : devisParDefaut).increment());
+        logger.info("{} devis enregistrés sur un lot de {}", enregistres, lot.size());
+        return lot.size();
+    }
+
+    /**
+     * Calcule les devis d'un lot : grille locale en mode local ; sinon les devis mémorisés sont servis
+     * sans appel, et les demandes restantes aux champs tarifés identiques partagent un même appel
+     * (le devis par défaut d'une demande reste calculé sur ses propres paramètres)
+     */
+    private Mono<List<DevisResultat>> calculerLot(List<DevisEnAttente> lot) {
+        if (tarificationLocale.estPrimaire()) {
+            return Mono.just(lot.stream()
+                    .map(demande -> new DevisResultat(demande.id(),
+                            tarificationLocale.devis(parametres(demande)).montant(), StatutDevis.CALCULE))
+                    .toList());
+        }
+
+        List<DevisResultat> resultats = new ArrayList<>(lot.size());
+        Map<ParametresDevis, List<DevisEnAttente>> aCalculer = new LinkedHashMap<>();
+        for (DevisEnAttente demande : lot) {
+            ParametresDevis parametres = parametres(demande);
+            BigDecimal memorise = devisCache.get(parametres);
+            if (memorise != null) {
+                resultats.add(new DevisResultat(demande.id(), memorise, StatutDevis.CALCULE));
+            } else {
+                aCalculer.computeIfAbsent(champsTarifes(parametres), p -> new ArrayList<>()).add(demande);
+            }
+        }
+        if (aCalculer.isEmpty()) {
+            return Mono.just(resultats);
+        }
+
+        List<ParametresDevis> distincts = new ArrayList<>(aCalculer.keySet());
+        return calculerDistincts(distincts)
+                .map(devis -> {
+                    for (int i = 0; i < distincts.size(); i++) {
+                        BigDecimal montant = devis.get(i).orElse(null);
+                        for (DevisEnAttente demande : aCalculer.get(distincts.get(i))) {
+                            resultats.add(montant != null
+                                    ? new DevisResultat(demande.id(), montant, StatutDevis.CALCULE)
+                                    : new DevisResultat(demande.id(),
+                                            tarificationLocale.devis(parametres(demande)).montant(), StatutDevis.PAR_DEFAUT));
+                        }
+                    }
+                    return resultats;
+                });
+    }
+
+    /**
+     * Calcule des devis distincts : un appel groupé au service Tarification, ou un appel par devis
+     * (concurrence bornée) si l'appel groupé échoue ou n'est pas supporté
+     * @return Les montants, dans l'ordre des paramètres (vide si le service Tarification est indisponible)
+     */
+    private Mono<List<Optional<BigDecimal>>> calculerDistincts(List<ParametresDevis> parametres) {
+        Mono<List<Optional<BigDecimal>>> unParUn = Flux.fromIterable(parametres)
+                .flatMapSequential(this::calculer, concurrency)
+                .collectList();
+        if (!appelGroupe || !appelGroupeSupporte.get() || parametres.size() == 1) {
+            return unParUn;
+        }
+
+        return tarificationClient.calculerLot(parametres)
+                .map(tarifs -> IntStream.range(0, parametres.size())
+                        .mapToObj(i -> memoriser(parametres.get(i), tarifs.get(i)))
+                        .toList())
+                .onErrorResume(e -> {
+                    if (e instanceof WebClientResponseException.NotFound
+                            || e instanceof WebClientResponseException.MethodNotAllowed) {
+                        // Service Tarification sans endpoint groupé : appels unitaires jusqu'au redémarrage
+                        appelGroupeSupporte.set(false);
+                        logger.warn("Appel groupé non supporté par le service Tarification, passage aux appels unitaires");
+                    } else {
+                        logger.warn("Échec de l'appel groupé au service Tarification ({} devis), appels unitaires: {}",
+                                parametres.size(), e.getMessage());
+                    }
+                    return unParUn;
+                });
+    }
+
+    private static ParametresDevis parametres(DevisEnAttente demande) {
+        return new ParametresDevis(demande.volume(), demande.poids(), null, demande.categorieId());
+    }
+
+    /**
+     * Champs envoyés au service Tarification (voir TarificationClient) : poids et catégorie n'y changent rien
+     */
+    private static ParametresDevis champsTarifes(ParametresDevis parametres) {
+        return new ParametresDevis(parametres.volume(), null, parametres.distanceKm(), null);
+    }
+
+    private Mono<Optional<BigDecimal>> calculer(ParametresDevis parametres) {
+        return tarificationClient.calculer(parametres)
+                .map(tarif -> memoriser(parametres, tarif))
+                .onErrorResume(e -> {
+                    logger.warn("Service Tarification indisponible pour {}, devis par défaut: {}",
+                            parametres, e.getMessage());
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    /**
+     * Seuls les devis du service Tarification sont mémorisés (pas les devis par défaut)
+     */
+    private Optional<BigDecimal> memoriser(ParametresDevis parametres, TarifResponseDTO tarif) {
+        devisCache.put(parametres, tarif.montant(), tarif.version());
+        return Optional.of(tarif.montant());
+    }
+
+    private record DevisResultat(Long demandeId, BigDecimal montant, StatutDevis statut) {
+    }
+}
@@ -0,0 +1,44 @@
+package ma.tna.microservice3.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grille tarifaire locale (tarifs/grille-tarifaire.json), versionnée
+ * Montant = max(prixMinimum, (prixBase + prix du poids taxable + prix de la distance)
+ *           × (1 + majorations de la catégorie) × multiplicateur de température)
+ * Les tranches sont progressives (chaque tranche s'applique à la part comprise dans ses bornes)
+ * @param version Version de la grille, reprise dans la description des devis
+ * @param prixBase Prix fixe de prise en charge (MAD)
+ * @param prixMinimum Montant minimal d'un devis (MAD)
+ * @param densiteParDefaut Densité (kg/m³) quand le poids et la densité de la catégorie sont inconnus
+ * @param poidsVolumetriqueParM3 Poids taxable minimal par m³ (kg/m³), pour les marchandises légères et volumineuses
+ * @param tranchesPoids Prix au kg par tranche de poids taxable, bornes croissantes, dernière borne null
+ * @param distanceParDefautKm Distance (km) quand elle n'est pas fournie
+ * @param tranchesDistance Prix au km par tranche de distance, bornes croissantes, dernière borne null
+ * @param majorationFragile Majoration des marchandises fragiles (0.15 = +15 %)
+ * @param majorationDangereux Majoration des marchandises dangereuses
+ * @param multiplicateursTemperature Multiplicateur par température requise (chaîne du froid)
+ */
+public record GrilleTarifaire(
+        String version,
+        double prixBase,
+        double prixMinimum,
+        double densiteParDefaut,
+        double poidsVolumetriqueParM3,
+        List<Tranche> tranchesPoids,
+        double distanceParDefautKm,
+        List<Tranche> tranchesDistance,
+        double majorationFragile,
+        double majorationDangereux,
+        Map<String, Double> multiplicateursTemperature
+) {
+
+    /**
+     * Tranche d'un barème progressif
+     * @param jusqua Borne haute de la tranche (null : dernière tranche, sans borne)
+     * @param prix Prix unitaire dans la tranche
+     */
+    public record Tranche(Double jusqua, double prix) {
+    }
+}
@@ -0,0 +1,157 @@
+package ma.tna.microservice3.service;
+
+import ma.tna.microservice3.dto.CategorieResponseDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Évaluateur d'une grille tarifaire, compilé une fois en tableaux de primitives
+ * L'évaluation d'un devis ne fait aucune allocation : barèmes parcourus sur des double[],
+ * température cherchée par comparaison dans un petit tableau
+ */
+public final class MoteurTarifaire {
+
+    private final String version;
+    private final double prixBase;
+    private final double prixMinimum;
+    private final double densiteParDefaut;
+    private final double poidsVolumetriqueParM3;
+    private final double[] bornesPoids;
+    private final double[] prixPoids;
+    private final double distanceParDefautKm;
+    private final double[] bornesDistance;
+    private final double[] prixDistance;
+    private final double majorationFragile;
+    private final double majorationDangereux;
+    private final String[] temperatures;
+    private final double[] multiplicateurs;
+
+    public MoteurTarifaire(GrilleTarifaire grille) {
+        if (grille.version() == null || grille.version().isBlank()) {
+            throw new IllegalArgumentException("Grille tarifaire sans version");
+        }
+        this.version = grille.version();
+        this.prixBase = positif(grille.prixBase(), "prixBase");
+        this.prixMinimum = positif(grille.prixMinimum(), "prixMinimum");
+        this.densiteParDefaut = positif(grille.densiteParDefaut(), "densiteParDefaut");
+        this.poidsVolumetriqueParM3 = positif(grille.poidsVolumetriqueParM3(), "poidsVolumetriqueParM3");
+        this.distanceParDefautKm = positif(grille.distanceParDefautKm(), "distanceParDefautKm");
+        this.majorationFragile = positif(grille.majorationFragile(), "majorationFragile");
+        this.majorationDangereux = positif(grille.majorationDangereux(), "majorationDangereux");
+
+        this.bornesPoids = bornes(grille.tranchesPoids(), "tranchesPoids");
+        this.prixPoids = prix(grille.tranchesPoids(), "tranchesPoids");
+        this.bornesDistance = bornes(grille.tranchesDistance(), "tranchesDistance");
+        this.prixDistance = prix(grille.tranchesDistance(), "tranchesDistance");
+
+        Map<String, Double> parTemperature = grille.multiplicateursTemperature() != null
+                ? grille.multiplicateursTemperature() : Map.of();
+        this.temperatures = new String[parTemperature.size()];
+        this.multiplicateurs = new double[parTemperature.size()];
+        int i = 0;
+        for (Map.Entry<String, Double> entry : parTemperature.entrySet()) {
+            temperatures[i] = entry.getKey();
+            multiplicateurs[i] = positif(entry.getValue(), "multiplicateursTemperature." + entry.getKey());
+            i++;
+        }
+    }
+
+    public String version() {
+        return version;
+    }
+
+    /**
+     * Montant d'un devis, arrondi au centime
+     * @param volume Volume en m³
+     * @param poids Poids en kg (NaN si inconnu : estimé à partir de la densité de la catégorie)
+     * @param distanceKm Distance en km (NaN si inconnue : distance par défaut de la grille)
+     * @param categorie Catégorie de la marchandise (null si aucune)
+     */
+    public double evaluer(double volume, double poids, double distanceKm, CategorieResponseDTO categorie) {
+        double densite = densiteParDefaut;
+        double majoration = 1;
+        double multiplicateur = 1;
+        if (categorie != null) {
+            if (categorie.densiteMoyenne() != null && categorie.densiteMoyenne() > 0) {
+                densite = categorie.densiteMoyenne();
+            }
+            if (Boolean.TRUE.equals(categorie.fragile())) {
+                majoration += majorationFragile;
+            }
+            if (Boolean.TRUE.equals(categorie.dangereux())) {
+                majoration += majorationDangereux;
+            }
+            multiplicateur = multiplicateur(categorie.temperatureRequise());
+        }
+
+        double poidsReel = Double.isNaN(poids) ? volume * densite : poids;
+        double poidsTaxable = Math.max(poidsReel, volume * poidsVolumetriqueParM3);
+        double distance = Double.isNaN(distanceKm) ? distanceParDefautKm : distanceKm;
+
+        double montant = (prixBase + bareme(poidsTaxable, bornesPoids, prixPoids)
+                + bareme(distance, bornesDistance, prixDistance)) * majoration * multiplicateur;
+        return Math.round(Math.max(prixMinimum, montant) * 100) / 100.0;
+    }
+
+    private double multiplicateur(String temperature) {
+        if (temperature != null) {
+            for (int i = 0; i < temperatures.length; i++) {
+                if (temperatures[i].equalsIgnoreCase(temperature)) {
+                    return multiplicateurs[i];
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Barème progressif : chaque tranche tarifie la part de la quantité comprise dans ses bornes
+     */
+    private static double bareme(double quantite, double[] bornes, double[] prix) {
+        double total = 0;
+        double bas = 0;
+        for (int i = 0; i < bornes.length && quantite > bas; i++) {
+            total += (Math.min(quantite, bornes[i]) - bas) * prix[i];
+            bas = bornes[i];
+        }
+        return total;
+    }
+
+    private static double[] bornes(List<GrilleTarifaire.Tranche> tranches, String nom) {
+        if (tranches == null || tranches.isEmpty()) {
+            throw new IllegalArgumentException("Grille tarifaire: " + nom + " vide");
+        }
+        double[] bornes = new double[tranches.size()];
+        double precedente = 0;
+        for (int i = 0; i < tranches.size(); i++) {
+            Double jusqua = tranches.get(i).jusqua();
+            boolean derniere = i == tranches.size() - 1;
+            if (derniere != (jusqua == null)) {
+                throw new IllegalArgumentException("Grille tarifaire: seule la dernière tranche de " + nom
+                        + " doit être sans borne");
+            }
+            bornes[i] = derniere ? Double.POSITIVE_INFINITY : jusqua;
+            if (bornes[i] <= precedente) {
+                throw new IllegalArgumentException("Grille tarifaire: bornes de " + nom + " non croissantes");
+            }
+            precedente = bornes[i];
+        }
+        return bornes;
+    }
+
+    private static double[] prix(List<GrilleTarifaire.Tranche> tranches, String nom) {
+        double[] prix = new double[tranches.size()];
+        for (int i = 0; i < tranches.size(); i++) {
+            prix[i] = positif(tranches.get(i).prix(), nom + "[" + i + "].prix");
+        }
+        return prix;
+    }
+
+    private static double positif(Double valeur, String nom) {
+        if (valeur == null || valeur < 0 || valeur.isNaN() || valeur.isInfinite()) {
+            throw new IllegalArgumentException("Grille tarifaire: " + nom + " doit être un nombre positif");
+        }
+        return valeur;
+    }
+}
@@ -0,0 +1,259 @@
+package ma.tna.microservice3.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import ma.tna.microservice3.client.MatchingClient;
+import ma.tna.microservice3.model.OutboxEvent;
+import ma.tna.microservice3.model.StatutEvenement;
+import ma.tna.microservice3.repository.OutboxEventRepository;
+import ma.tna.microservice3.util.ThreadFactories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Livraison en arrière-plan des événements de la table outbox (au moins une fois)
+ * Chaque lot est réservé dans une transaction courte (SELECT ... FOR UPDATE SKIP LOCKED,
+ * prochainEssai repoussé de la durée de réservation) : plusieurs instances se partagent la table
+ * sans livrer deux fois le même lot, et un lot réservé par une instance arrêtée redevient
+ * disponible à l'expiration de la réservation.
+ * Les appels sont faits sans connexion JDBC ouverte, avec une concurrence bornée ;
+ * un échec replanifie l'événement avec un délai exponentiel, jusqu'au nombre maximal de tentatives.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final int ERREUR_MAX_LENGTH = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MatchingClient matchingClient;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter envoyes;
+    private final Counter reessais;
+    private final Counter echecs;
+
+    private final ExecutorService executor;
+    private final AtomicBoolean passagePlanifie = new AtomicBoolean();
+
+    @Value("${outbox.dispatcher.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.dispatcher.concurrency:10}")
+    private int concurrency;
+
+    @Value("${outbox.dispatcher.lease:2m}")
+    private Duration lease;
+
+    @Value("${outbox.dispatcher.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.dispatcher.initial-backoff:5s}")
+    private Duration initialBackoff;
+
+    @Value("${outbox.dispatcher.max-backoff:10m}")
+    private Duration maxBackoff;
+
+    @Value("${outbox.retention:7d}")
+    private Duration retention;
+
+    public OutboxDispatcher(
+            OutboxEventRepository outboxEventRepository,
+            MatchingClient matchingClient,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.executor = Executors.newSingleThreadExecutor(ThreadFactories.named("outbox-dispatcher", virtualThreads));
+        this.outboxEventRepository = outboxEventRepository;
+        this.matchingClient = matchingClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.envoyes = compteur(meterRegistry, "envoye");
+        this.reessais = compteur(meterRegistry, "reessai");
+        this.echecs = compteur(meterRegistry, "echec");
+    }
+
+    private static Counter compteur(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("outbox.dispatch")
+                .description("Tentatives de livraison des événements outbox")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Demande un passage du dispatcher une fois la transaction courante validée
+     */
+    public void demanderApresCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    demander();
+                }
+            });
+        } else {
+            demander();
+        }
+    }
+
+    /**
+     * Demande un passage du dispatcher ; les demandes reçues pendant un passage en déclenchent un seul suivant
+     */
+    public void demander() {
+        if (passagePlanifie.compareAndSet(false, true)) {
+            executor.execute(this::traiter);
+        }
+    }
+
+    /**
+     * Reprise périodique : nouveaux essais échus et événements d'autres instances
+     */
+    @Scheduled(fixedDelayString = "${outbox.dispatcher.interval:5s}", initialDelayString = "${outbox.dispatcher.interval:5s}")
+    public void reprendre() {
+        demander();
+    }
+
+    /**
+     * Purge des événements livrés au-delà de la durée de rétention
+     */
+    @Scheduled(fixedDelayString = "${outbox.purge-interval:1h}", initialDelayString = "${outbox.purge-interval:1h}")
+    public void purger() {
+        Integer supprimes = transactionTemplate.execute(status ->
+                outboxEventRepository.purgerEnvoyes(LocalDateTime.now().minus(retention)));
+        logger.info("{} événements outbox livrés purgés", supprimes);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdownNow();
+    }
+
+    private void traiter() {
+        // Réarmé avant le traitement : un événement publié pendant ce passage en planifie un autre
+        passagePlanifie.set(false);
+        try {
+            int traites;
+            do {
+                traites = traiterLot();
+            } while (traites == batchSize);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la livraison des événements outbox, nouvel essai au prochain passage", e);
+        }
+    }
+
+    /**
+     * Réserve, livre et enregistre le résultat d'un lot d'événements
+     * @return Le nombre d'événements réservés
+     */
+    private int traiterLot() {
+        List<OutboxEvent> lot = reserverLot();
+        if (lot.isEmpty()) {
+            return 0;
+        }
+        logger.debug("Livraison de {} événements outbox", lot.size());
+
+        List<Livraison> livraisons = Flux.fromIterable(lot)
+                .flatMap(this::livrer, concurrency)
+                .collectList()
+                .block(lease);
+
+        if (livraisons == null) {
+            return lot.size();
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> livraisons.forEach(livraison ->
+                enregistrer(livraison, maintenant)));
+        return lot.size();
+    }
+
+    private List<OutboxEvent> reserverLot() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime maintenant = LocalDateTime.now();
+            List<OutboxEvent> lot = outboxEventRepository.findALivrer(
+                    StatutEvenement.EN_ATTENTE, maintenant, PageRequest.of(0, batchSize));
+            // Réservation : le lot n'est plus éligible avant l'expiration du bail
+            LocalDateTime finReservation = maintenant.plus(lease);
+            lot.forEach(event -> event.setProchainEssai(finReservation));
+            return lot;
+        });
+    }
+
+    private Mono<Livraison> livrer(OutboxEvent event) {
+        Mono<Void> envoi = switch (event.getType()) {
+            case DEMANDE_VALIDEE -> matchingClient.rechercher(event.getPayload());
+            case DEMANDES_STATUT_MODIFIE -> matchingClient.notifierStatuts(event.getPayload());
+        };
+        return envoi
+                .then(Mono.fromCallable(() -> new Livraison(event, null)))
+                .onErrorResume(e -> Mono.just(new Livraison(event, e)));
+    }
+
+    private void enregistrer(Livraison livraison, LocalDateTime maintenant) {
+        OutboxEvent event = livraison.event();
+        if (livraison.erreur() == null) {
+            outboxEventRepository.marquerEnvoye(event.getId(), maintenant);
+            envoyes.increment();
+            Timer.builder("outbox.delivery.latency")
+                    .description("Délai entre l'enregistrement d'un événement outbox et sa livraison")
+                    .tag("type", event.getType().name())
+                    .register(meterRegistry)
+                    .record(Duration.between(event.getDateCreation(), maintenant));
+            return;
+        }
+
+        int tentatives = event.getTentatives() + 1;
+        String erreur = tronquer(livraison.erreur().getMessage());
+        if (tentatives >= maxAttempts) {
+            outboxEventRepository.enregistrerEchec(event.getId(), StatutEvenement.ECHEC, maintenant, erreur);
+            echecs.increment();
+            logger.error("Événement outbox ID: {} ({}) abandonné après {} tentatives: {}",
+                    event.getId(), event.getType(), tentatives, erreur);
+        } else {
+            LocalDateTime prochainEssai = maintenant.plus(backoff(tentatives));
+            outboxEventRepository.enregistrerEchec(event.getId(), StatutEvenement.EN_ATTENTE, prochainEssai, erreur);
+            reessais.increment();
+            logger.warn("Échec de livraison de l'événement outbox ID: {} ({}), tentative {}, nouvel essai à {}: {}",
+                    event.getId(), event.getType(), tentatives, prochainEssai, erreur);
+        }
+    }
+
+    /**
+     * Délai exponentiel : initialBackoff × 2^(tentatives - 1), plafonné à maxBackoff
+     */
+    private Duration backoff(int tentatives) {
+        Duration delai = initialBackoff.multipliedBy(1L << Math.min(tentatives - 1, 20));
+        return delai.compareTo(maxBackoff) > 0 ? maxBackoff : delai;
+    }
+
+    private static String tronquer(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= ERREUR_MAX_LENGTH ? message : message.substring(0, ERREUR_MAX_LENGTH);
+    }
+
+    private record Livraison(OutboxEvent event, Throwable erreur) {
+    }
+}
@@ -0,0 +1,64 @@
+package ma.tna.microservice3.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ma.tna.microservice3.model.OutboxEvent;
+import ma.tna.microservice3.model.TypeEvenement;
+import ma.tna.microservice3.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Publication d'événements dans la table outbox
+ * Doit être appelé dans la transaction de la modification métier : l'événement n'existe
+ * que si la modification est validée, puis il est livré par {@link OutboxDispatcher}
+ */
+@Component
+public class OutboxPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxPublisher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final ObjectMapper objectMapper;
+
+    public OutboxPublisher(
+            OutboxEventRepository outboxEventRepository,
+            OutboxDispatcher outboxDispatcher,
+            ObjectMapper objectMapper
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxDispatcher = outboxDispatcher;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Enregistre un événement dans la transaction courante et demande sa livraison après le commit
+     * @param type Le type d'événement
+     * @param demandeId L'ID de la demande concernée
+     * @param payload Le corps de l'événement (sérialisé en JSON)
+     * @return L'événement enregistré
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent publier(TypeEvenement type, Long demandeId, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Événement " + type + " non sérialisable", e);
+        }
+
+        OutboxEvent event = outboxEventRepository.save(OutboxEvent.builder()
+                .type(type)
+                .demandeId(demandeId)
+                .payload(json)
+                .build());
+        logger.debug("Événement {} enregistré pour la demande ID: {}", type, demandeId);
+
+        outboxDispatcher.demanderApresCommit();
+        return event;
+    }
+}
@@ -0,0 +1,51 @@
+package ma.tna.microservice3.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ma.tna.microservice3.mapper.CategorieMapper;
+import ma.tna.microservice3.repository.reactive.CategorieReactiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Catalogue des catégories du profil "reactive", chargé par R2DBC
+ * Même instantané que {@link CategorieCatalogCache} (index, ETag, vues pré-sérialisées), mais les écritures
+ * étant faites par d'autres instances, il est rechargé après categories.catalog.reactive-ttl plutôt qu'à l'invalidation.
+ * Les abonnés arrivant pendant un chargement attendent ce chargement : une seule requête à la fois
+ */
+@Component
+@Profile("reactive")
+public class ReactiveCategorieCatalogCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCategorieCatalogCache.class);
+
+    private final Mono<CategorieCatalog> catalog;
+
+    public ReactiveCategorieCatalogCache(
+            CategorieReactiveRepository categorieRepository,
+            CategorieMapper categorieMapper,
+            ObjectMapper objectMapper,
+            @Value("${categories.catalog.reactive-ttl:30s}") Duration ttl
+    ) {
+        this.catalog = categorieRepository.findAll()
+                .map(categorieMapper::toResponseDTO)
+                .collectList()
+                .map(categories -> CategorieCatalog.of(categories, objectMapper))
+                .doOnNext(loaded -> logger.info("Catalogue des catégories chargé (R2DBC): {} catégories ({} octets pré-sérialisés)",
+                        loaded.size(), loaded.tailleSerialisee()))
+                // Erreur de chargement non mémorisée : l'abonné suivant relance la lecture
+                .cache(loaded -> ttl, erreur -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    /**
+     * Instantané courant du catalogue (chargé au premier abonnement puis à l'expiration)
+     */
+    public Mono<CategorieCatalog> catalog() {
+        return catalog;
+    }
+}
@@ -0,0 +1,256 @@
+package ma.tna.microservice3.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ma.tna.microservice3.dto.ClientInfoDTO;
+import ma.tna.microservice3.dto.DemandePageDTO;
+import ma.tna.microservice3.dto.DemandeResponseDTO;
+import ma.tna.microservice3.dto.DemandeSearchCriteria;
+import ma.tna.microservice3.dto.MissionClientsDTO;
+import ma.tna.microservice3.exception.BadRequestException;
+import ma.tna.microservice3.exception.ResourceNotFoundException;
+import ma.tna.microservice3.exception.UnauthorizedException;
+import ma.tna.microservice3.mapper.DemandeMapper;
+import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.repository.DemandeSpecifications;
+import ma.tna.microservice3.repository.reactive.DemandeLigne;
+import ma.tna.microservice3.repository.reactive.DemandeReactiveRepository;
+import ma.tna.microservice3.util.DemandeEtag;
+import ma.tna.microservice3.util.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Lectures des demandes du profil "reactive" (WebFlux + R2DBC)
+ * Mêmes règles d'accès et mêmes réponses que {@link DemandeServiceImpl} ; chaque listing est une seule requête R2DBC,
+ * la catégorie de chaque demande étant résolue depuis {@link ReactiveCategorieCatalogCache}
+ */
+@Service
+@Profile("reactive")
+public class ReactiveDemandeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveDemandeService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final DemandeReactiveRepository demandeRepository;
+    private final R2dbcEntityTemplate template;
+    private final ReactiveCategorieCatalogCache catalogCache;
+    private final DemandeMapper demandeMapper;
+    private final ClientInfoService clientInfoService;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveDemandeService(
+            DemandeReactiveRepository demandeRepository,
+            R2dbcEntityTemplate template,
+            ReactiveCategorieCatalogCache catalogCache,
+            DemandeMapper demandeMapper,
+            ClientInfoService clientInfoService,
+            ObjectMapper objectMapper
+    ) {
+        this.demandeRepository = demandeRepository;
+        this.template = template;
+        this.catalogCache = catalogCache;
+        this.demandeMapper = demandeMapper;
+        this.clientInfoService = clientInfoService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Lecture conditionnelle d'une demande (voir {@link DemandeService#getDemandeSiModifiee})
+     */
+    public Mono<DemandeLue> getDemandeSiModifiee(Long demandeId, Long userId, String role, String ifNoneMatch) {
+        return demandeRepository.findById(demandeId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + demandeId)))
+                .doOnNext(demande -> verifierLecture(demande, userId, role))
+                .zipWith(catalogCache.catalog(), (demande, catalogue) -> {
+                    DemandeResponseDTO dto = versDto(demande, catalogue);
+                    String etag = DemandeEtag.of(dto);
+                    return DemandeEtag.correspond(ifNoneMatch, etag) ? new DemandeLue(etag, null) : new DemandeLue(etag, dto);
+                });
+    }
+
+    public Flux<DemandeResponseDTO> getDemandesByClient(Long userId) {
+        logger.info("Récupération des demandes pour le client ID: {}", userId);
+        return avecCategorie(demandeRepository.findByClientIdOrderByDateCreationDescIdDesc(userId));
+    }
+
+    public Flux<DemandeResponseDTO> getAllDemandes() {
+        logger.info("Récupération de toutes les demandes (Admin)");
+        return avecCategorie(demandeRepository.findAllByOrderByDateCreationDescIdDesc());
+    }
+
+    public Flux<DemandeResponseDTO> getDemandesByStatut(String statut) {
+        logger.info("Récupération des demandes par statut: {}", statut);
+        StatutValidation statutValidation = StatutValidation.valueOf(statut.toUpperCase());
+        return avecCategorie(demandeRepository.findByStatutValidationOrderByDateCreationDescIdDesc(statutValidation));
+    }
+
+    public Flux<DemandeResponseDTO> getDemandesByMission(Long missionId) {
+        logger.info("Récupération des demandes pour la mission ID: {}", missionId);
+        return avecCategorie(demandeRepository.findByMissionIdOrderByDateCreationDescIdDesc(missionId));
+    }
+
+    /**
+     * Recherche paginée par curseur (voir {@link DemandeService#rechercherDemandes})
+     */
+    public Mono<DemandePageDTO> rechercherDemandes(DemandeSearchCriteria criteria, String cursor, int size,
+                                                   Long userId, String role) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return Mono.error(new BadRequestException("La taille de page doit être comprise entre 1 et " + MAX_PAGE_SIZE));
+        }
+
+        // CLIENT ne peut rechercher que parmi SES demandes
+        DemandeSearchCriteria criteres = !"ADMIN".equalsIgnoreCase(role) && !"PRESTATAIRE".equalsIgnoreCase(role)
+                ? criteria.pourClient(userId)
+                : criteria;
+        logger.info("Recherche paginée des demandes par l'utilisateur ID: {} avec rôle: {} - critères: {}", userId, role, criteres);
+
+        Criteria where;
+        try {
+            where = criteres(criteres, role, cursor);
+        } catch (BadRequestException e) {
+            return Mono.error(e);
+        }
+
+        // Lire un élément de plus que demandé pour savoir s'il existe une page suivante
+        Query query = Query.query(where).sort(DemandeSpecifications.KEYSET_SORT).limit(size + 1);
+        return template.select(DemandeLigne.class).matching(query).all()
+                .collectList()
+                .zipWith(catalogCache.catalog(), (demandes, catalogue) -> {
+                    boolean hasNext = demandes.size() > size;
+                    List<DemandeLigne> page = hasNext ? demandes.subList(0, size) : demandes;
+
+                    String nextCursor = null;
+                    if (hasNext) {
+                        DemandeLigne last = page.get(page.size() - 1);
+                        nextCursor = new KeysetCursor(last.dateCreation(), last.id()).encode();
+                    }
+
+                    List<DemandeResponseDTO> content = page.stream()
+                            .map(demande -> versDto(demande, catalogue))
+                            .toList();
+                    return new DemandePageDTO(content, content.size(), hasNext, nextCursor);
+                });
+    }
+
+    /**
+     * Export de toutes les demandes par ID croissant, ligne par ligne au fil de la lecture
+     * (même contenu que {@link DemandeExportService} : une demande JSON par ligne, ou en-tête CSV puis une ligne par demande)
+     */
+    public Flux<String> exporter(DemandeExportService.Format format) {
+        logger.info("Début de l'export des demandes au format {} (R2DBC)", format);
+        Flux<DemandeResponseDTO> demandes = avecCategorie(demandeRepository.findAllByOrderById());
+        if (format == DemandeExportService.Format.CSV) {
+            return Flux.concat(Mono.just(DemandeExportService.CSV_HEADER + '\n'),
+                    demandes.map(DemandeExportService::ligneCsv));
+        }
+        return demandes.map(this::ligneNdjson);
+    }
+
+    public Mono<ClientInfoDTO> getClientInfoByDemande(Long demandeId, Long userId, String role, String authToken) {
+        logger.info("Récupération des infos client pour la demande ID: {} par l'utilisateur ID: {} avec rôle: {}",
+                demandeId, userId, role);
+        Mono<Long> clientIdDemande = demandeRepository.findById(demandeId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Demande non trouvée avec l'ID: " + demandeId)))
+                .map(DemandeLigne::clientId);
+        return clientInfoService.getClientInfoDuClient(clientIdDemande, userId, role, authToken);
+    }
+
+    public Mono<MissionClientsDTO> getClientsByMission(Long missionId, String authToken) {
+        logger.info("Récupération des infos clients de la mission ID: {}", missionId);
+        return clientInfoService.getClientsDeMission(missionId,
+                demandeRepository.findClientsByMissionIdOrderById(missionId).collectList(), authToken);
+    }
+
+    /**
+     * Conditions SQL de la recherche : critères, restriction PRESTATAIRE et position du curseur
+     * (mêmes conditions que {@link DemandeSpecifications})
+     */
+    private static Criteria criteres(DemandeSearchCriteria criteria, String role, String cursor) {
+        Criteria where = Criteria.empty();
+        if (criteria.statut() != null) {
+            where = where.and("statutValidation").is(criteria.statut());
+        }
+        if (criteria.clientId() != null) {
+            where = where.and("clientId").is(criteria.clientId());
+        }
+        if (criteria.missionId() != null) {
+            where = where.and("missionId").is(criteria.missionId());
+        }
+        if (criteria.categorieId() != null) {
+            where = where.and("categorieId").is(criteria.categorieId());
+        }
+        if (criteria.creeApres() != null) {
+            where = where.and("dateCreation").greaterThanOrEquals(criteria.creeApres());
+        }
+        if (criteria.creeAvant() != null) {
+            where = where.and("dateCreation").lessThan(criteria.creeAvant());
+        }
+        if (criteria.villeDepart() != null) {
+            where = where.and("villeDepart").is(criteria.villeDepart());
+        }
+        if (criteria.villeDestination() != null) {
+            where = where.and("villeDestination").is(criteria.villeDestination());
+        }
+
+        // PRESTATAIRE ne voit pas les demandes encore en attente du client
+        if ("PRESTATAIRE".equalsIgnoreCase(role)) {
+            where = where.and("statutValidation").not(StatutValidation.EN_ATTENTE_CLIENT);
+        }
+        // (dateCreation < c) OR (dateCreation = c AND id < i)
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor apres = KeysetCursor.decode(cursor);
+            where = where.and(Criteria.where("dateCreation").lessThan(apres.dateCreation())
+                    .or(Criteria.where("dateCreation").is(apres.dateCreation()).and("id").lessThan(apres.id())));
+        }
+        return where;
+    }
+
+    /**
+     * Vérifie que l'utilisateur peut consulter la demande (mêmes règles que {@link DemandeServiceImpl})
+     */
+    private static void verifierLecture(DemandeLigne demande, Long userId, String role) {
+        // ADMIN peut voir toutes les demandes
+        if ("ADMIN".equalsIgnoreCase(role)) {
+            return;
+        }
+
+        // PRESTATAIRE peut voir les demandes qui ne sont plus en attente du client
+        if ("PRESTATAIRE".equalsIgnoreCase(role) && demande.statutValidation() != StatutValidation.EN_ATTENTE_CLIENT) {
+            return;
+        }
+
+        // CLIENT ne peut voir que SES demandes
+        if (!demande.clientId().equals(userId)) {
+            throw new UnauthorizedException("Vous n'êtes pas autorisé à consulter cette demande");
+        }
+    }
+
+    private String ligneNdjson(DemandeResponseDTO demande) {
+        try {
+            return objectMapper.writeValueAsString(demande) + '\n';
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation de la demande " + demande.id() + " impossible", e);
+        }
+    }
+
+    private Flux<DemandeResponseDTO> avecCategorie(Flux<DemandeLigne> demandes) {
+        return catalogCache.catalog()
+                .flatMapMany(catalogue -> demandes.map(demande -> versDto(demande, catalogue)));
+    }
+
+    private DemandeResponseDTO versDto(DemandeLigne demande, CategorieCatalog catalogue) {
+        return demandeMapper.toResponseDTO(demande, demande.categorieId() == null ? null
+                : catalogue.findById(demande.categorieId()).orElse(null));
+    }
+}
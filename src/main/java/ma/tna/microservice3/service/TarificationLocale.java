@@ -0,0 +1,99 @@
+package ma.tna.microservice3.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ma.tna.microservice3.client.ParametresDevis;
+import ma.tna.microservice3.dto.CategorieResponseDTO;
+import ma.tna.microservice3.dto.TarifResponseDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Tarification locale à partir de la grille tarifaire versionnée (tarification.locale.grille)
+ * En mode "remote" (par défaut), elle fournit le devis estimé quand le service Tarification est indisponible ;
+ * en mode "local", elle calcule tous les devis sans appeler le service Tarification.
+ * Les attributs de la catégorie (densité, fragile, dangereux, température) sont lus dans le catalogue en mémoire.
+ */
+@Component
+public class TarificationLocale {
+
+    private static final Logger logger = LoggerFactory.getLogger(TarificationLocale.class);
+
+    /**
+     * Mode de tarification (tarification.mode)
+     */
+    enum Mode {
+        /** Service Tarification, grille locale en repli */
+        REMOTE,
+        /** Grille locale uniquement */
+        LOCAL
+    }
+
+    private final CategorieCatalogCache catalogCache;
+    private final MoteurTarifaire moteur;
+    private final Mode mode;
+
+    public TarificationLocale(
+            CategorieCatalogCache catalogCache,
+            ObjectMapper objectMapper,
+            @Value("${tarification.locale.grille:classpath:tarifs/grille-tarifaire.json}") Resource grille,
+            @Value("${tarification.mode:remote}") String mode
+    ) {
+        this.catalogCache = catalogCache;
+        this.moteur = new MoteurTarifaire(charger(objectMapper, grille));
+        this.mode = Mode.valueOf(mode.toUpperCase());
+        logger.info("Grille tarifaire locale version {} ({}), mode de tarification: {}",
+                moteur.version(), grille.getDescription(), this.mode);
+    }
+
+    private static GrilleTarifaire charger(ObjectMapper objectMapper, Resource grille) {
+        try (InputStream in = grille.getInputStream()) {
+            return objectMapper.readValue(in, GrilleTarifaire.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Grille tarifaire illisible: " + grille.getDescription(), e);
+        }
+    }
+
+    /**
+     * Indique si les devis sont calculés localement, sans appeler le service Tarification
+     */
+    public boolean estPrimaire() {
+        return mode == Mode.LOCAL;
+    }
+
+    /**
+     * Version de la grille tarifaire chargée
+     */
+    public String version() {
+        return moteur.version();
+    }
+
+    /**
+     * Calcule un devis avec la grille locale
+     * @param parametres Les paramètres du devis
+     * @return Le tarif calculé
+     */
+    public TarifResponseDTO devis(ParametresDevis parametres) {
+        CategorieResponseDTO categorie = parametres.categorieId() != null
+                ? catalogCache.catalog().findById(parametres.categorieId()).orElse(null)
+                : null;
+        double montant = moteur.evaluer(
+                parametres.volume() != null ? parametres.volume() : 0,
+                parametres.poids() != null ? parametres.poids() : Double.NaN,
+                parametres.distanceKm() != null ? parametres.distanceKm() : Double.NaN,
+                categorie);
+        return new TarifResponseDTO(
+                BigDecimal.valueOf(montant).setScale(2, RoundingMode.HALF_UP),
+                "Devis estimé (grille tarifaire " + moteur.version() + ")",
+                null,
+                moteur.version()
+        );
+    }
+}
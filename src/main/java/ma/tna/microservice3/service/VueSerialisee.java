@@ -0,0 +1,55 @@
+package ma.tna.microservice3.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Vue du catalogue déjà sérialisée en JSON, et sa version compressée en gzip
+ * Construite une fois par instantané : les requêtes ne font qu'écrire ces octets dans la réponse
+ * Les tableaux ne sont jamais modifiés après construction
+ */
+public final class VueSerialisee {
+
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private VueSerialisee(byte[] json, byte[] gzip) {
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Construit la vue à partir du JSON ; la version gzip n'est gardée que si elle est plus petite
+     */
+    public static VueSerialisee of(byte[] json) {
+        byte[] compresse = compresser(json);
+        return new VueSerialisee(json, compresse.length < json.length ? compresse : null);
+    }
+
+    public byte[] json() {
+        return json;
+    }
+
+    /**
+     * @return Le JSON compressé en gzip, ou null si la compression ne réduit pas la taille
+     */
+    public byte[] gzip() {
+        return gzip;
+    }
+
+    public int taille() {
+        return json.length + (gzip != null ? gzip.length : 0);
+    }
+
+    private static byte[] compresser(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -2,21 +2,28 @@ package ma.tna.microservice3.service.impl;
 
 import ma.tna.microservice3.dto.CategorieRequestDTO;
 import ma.tna.microservice3.dto.CategorieResponseDTO;
+import ma.tna.microservice3.dto.CategorieSuggestionDTO;
 import ma.tna.microservice3.exception.ResourceNotFoundException;
 import ma.tna.microservice3.mapper.CategorieMapper;
 import ma.tna.microservice3.model.Categorie;
 import ma.tna.microservice3.repository.CategorieRepository;
+import ma.tna.microservice3.service.CategorieCatalog;
+import ma.tna.microservice3.service.CategorieCatalogCache;
+import ma.tna.microservice3.service.CategorieRecherche;
 import ma.tna.microservice3.service.CategorieService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Implémentation du service de gestion des catégories
+ * Les lectures par ID, nom et filtres sont servies par {@link CategorieCatalogCache} sans accès à la base
+ * La recherche par mot-clé passe par {@link CategorieRecherche} (pg_trgm sur PostgreSQL, trigrammes en mémoire sinon)
  */
 @Service
 @Transactional
@@ -26,10 +33,22 @@ public class CategorieServiceImpl implements CategorieService {
 
     private final CategorieRepository categorieRepository;
     private final CategorieMapper categorieMapper;
-
-    public CategorieServiceImpl(CategorieRepository categorieRepository, CategorieMapper categorieMapper) {
+    private final CategorieCatalogCache catalogCache;
+    private final CategorieRecherche categorieRecherche;
+    private final int maxResultats;
+
+    public CategorieServiceImpl(
+            CategorieRepository categorieRepository,
+            CategorieMapper categorieMapper,
+            CategorieCatalogCache catalogCache,
+            CategorieRecherche categorieRecherche,
+            @Value("${categories.search.max-results:50}") int maxResultats
+    ) {
         this.categorieRepository = categorieRepository;
         this.categorieMapper = categorieMapper;
+        this.catalogCache = catalogCache;
+        this.categorieRecherche = categorieRecherche;
+        this.maxResultats = maxResultats;
     }
 
     @Override
@@ -43,6 +62,7 @@ public class CategorieServiceImpl implements CategorieService {
 
         Categorie categorie = categorieMapper.toEntity(dto);
         Categorie savedCategorie = categorieRepository.save(categorie);
+        catalogCache.invalidateAfterCommit();
 
         logger.info("Catégorie créée avec ID: {}", savedCategorie.getIdCategorie());
         return categorieMapper.toResponseDTO(savedCategorie);
@@ -63,81 +83,84 @@ public class CategorieServiceImpl implements CategorieService {
 
         categorieMapper.updateEntityFromDTO(categorie, dto);
         Categorie updatedCategorie = categorieRepository.save(categorie);
+        catalogCache.invalidateAfterCommit();
 
         logger.info("Catégorie mise à jour: {}", updatedCategorie.getIdCategorie());
         return categorieMapper.toResponseDTO(updatedCategorie);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CategorieCatalog getCatalogue() {
+        return catalogCache.catalog();
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public CategorieResponseDTO getCategorieById(String id) {
         logger.info("Récupération de la catégorie ID: {}", id);
 
-        Categorie categorie = categorieRepository.findById(id)
+        return catalogCache.catalog().findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Catégorie non trouvée avec l'ID: " + id));
-
-        return categorieMapper.toResponseDTO(categorie);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public CategorieResponseDTO getCategorieByNom(String nom) {
         logger.info("Récupération de la catégorie par nom: {}", nom);
 
-        Categorie categorie = categorieRepository.findByNom(nom)
+        return catalogCache.catalog().findByNom(nom)
                 .orElseThrow(() -> new ResourceNotFoundException("Catégorie non trouvée avec le nom: " + nom));
-
-        return categorieMapper.toResponseDTO(categorie);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CategorieResponseDTO> getAllCategories() {
         logger.info("Récupération de toutes les catégories");
 
-        return categorieRepository.findAll().stream()
-                .map(categorieMapper::toResponseDTO)
-                .collect(Collectors.toList());
+        return catalogCache.catalog().all();
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CategorieResponseDTO> getCategoriesByFragile(Boolean fragile) {
         logger.info("Récupération des catégories par fragilité: {}", fragile);
 
-        return categorieRepository.findByFragile(fragile).stream()
-                .map(categorieMapper::toResponseDTO)
-                .collect(Collectors.toList());
+        return catalogCache.catalog().byFragile(fragile);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CategorieResponseDTO> getCategoriesByDangereux(Boolean dangereux) {
         logger.info("Récupération des catégories par dangerosité: {}", dangereux);
 
-        return categorieRepository.findByDangereux(dangereux).stream()
-                .map(categorieMapper::toResponseDTO)
-                .collect(Collectors.toList());
+        return catalogCache.catalog().byDangereux(dangereux);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CategorieResponseDTO> getCategoriesByTemperature(String temperatureRequise) {
         logger.info("Récupération des catégories par température: {}", temperatureRequise);
 
-        return categorieRepository.findByTemperatureRequise(temperatureRequise).stream()
-                .map(categorieMapper::toResponseDTO)
-                .collect(Collectors.toList());
+        return catalogCache.catalog().byTemperature(temperatureRequise);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CategorieResponseDTO> searchCategories(String keyword) {
         logger.info("Recherche de catégories avec mot-clé: {}", keyword);
 
-        return categorieRepository.findByNomContainingIgnoreCase(keyword).stream()
-                .map(categorieMapper::toResponseDTO)
-                .collect(Collectors.toList());
+        return categorieRecherche.rechercher(keyword, maxResultats);
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<CategorieSuggestionDTO> autocompleter(String prefixe, int limite) {
+        logger.debug("Autocomplétion des catégories: {}", prefixe);
+
+        return categorieRecherche.autocompleter(prefixe, Math.min(limite, maxResultats)).stream()
+                .map(categorie -> new CategorieSuggestionDTO(categorie.idCategorie(), categorie.nom()))
+                .toList();
     }
 
     @Override
@@ -149,6 +172,7 @@ public class CategorieServiceImpl implements CategorieService {
         }
 
         categorieRepository.deleteById(id);
+        catalogCache.invalidateAfterCommit();
         logger.info("Catégorie supprimée: {}", id);
     }
 }
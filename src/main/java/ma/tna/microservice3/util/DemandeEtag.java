@@ -0,0 +1,89 @@
+package ma.tna.microservice3.util;
+
+import ma.tna.microservice3.dto.CategorieResponseDTO;
+import ma.tna.microservice3.dto.DemandeResponseDTO;
+import ma.tna.microservice3.exception.BadRequestException;
+import ma.tna.microservice3.repository.projection.DemandeView;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ETag fort d'une demande : "&lt;version&gt;-&lt;horodatage de la catégorie&gt;"
+ * La version change à chaque écriture de la demande ; la catégorie, incluse dans la réponse,
+ * a sa propre date de modification
+ */
+public final class DemandeEtag {
+
+    private DemandeEtag() {
+    }
+
+    /**
+     * Calcule l'ETag d'une demande
+     * @param version La version de la demande
+     * @param categorieDateModification La date de modification de la catégorie (null si aucune)
+     * @return L'ETag, guillemets compris
+     */
+    public static String of(Long version, LocalDateTime categorieDateModification) {
+        String categorie = categorieDateModification == null ? "0"
+                : Long.toString(categorieDateModification.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L
+                        + categorieDateModification.getNano(), 36);
+        return "\"" + version + "-" + categorie + "\"";
+    }
+
+    public static String of(DemandeView view) {
+        return of(view.version(), view.categorieDateModification());
+    }
+
+    public static String of(DemandeResponseDTO dto) {
+        CategorieResponseDTO categorie = dto.categorie();
+        return of(dto.version(), categorie == null ? null : categorie.dateModification());
+    }
+
+    /**
+     * Indique si un en-tête If-None-Match désigne l'ETag courant (comparaison faible, "*" accepté)
+     */
+    public static boolean correspond(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidat : ifNoneMatch.split(",")) {
+            String valeur = candidat.trim();
+            if (valeur.equals("*") || valeur.equals(etag) || valeur.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versions acceptées par un en-tête If-Match (comparaison forte : les ETags faibles ne correspondent jamais)
+     * @param ifMatch La valeur de l'en-tête
+     * @return null si aucune condition (en-tête absent ou "*"), sinon les versions acceptées (éventuellement vide)
+     * @throws BadRequestException si un ETag fort n'a pas le format d'un ETag de demande
+     */
+    public static List<Long> versionsAttendues(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String candidat : ifMatch.split(",")) {
+            String valeur = candidat.trim();
+            if (valeur.startsWith("W/")) {
+                continue;
+            }
+            int tiret = valeur.indexOf('-');
+            if (valeur.length() < 3 || !valeur.startsWith("\"") || !valeur.endsWith("\"") || tiret < 0) {
+                throw new BadRequestException("En-tête If-Match invalide: " + ifMatch);
+            }
+            try {
+                versions.add(Long.parseLong(valeur.substring(1, tiret)));
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("En-tête If-Match invalide: " + ifMatch);
+            }
+        }
+        return versions;
+    }
+}
@@ -1,8 +1,11 @@
 package ma.tna.microservice3.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import ma.tna.microservice3.security.JwtPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -30,6 +33,20 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    /**
+     * Clé et parseur construits une seule fois (ils sont immuables et thread-safe)
+     */
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = getSigningKey();
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
     /**
      * Génère la clé de signature à partir du secret (texte brut, pas Base64)
      * Compatible avec le Service Utilisateurs qui utilise: transport_marchandises_api2025vs2026
@@ -43,13 +60,26 @@ public class JwtUtil {
      * Extrait tous les claims du token
      */
     public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
+    /**
+     * Vérifie le token (signature et expiration) en une seule passe et en extrait l'identité
+     * @throws io.jsonwebtoken.JwtException si le token est invalide ou expiré
+     */
+    public JwtPrincipal parse(String token) {
+        Claims claims = extractAllClaims(token);
+        Date expirationDate = claims.getExpiration();
+        return new JwtPrincipal(
+                resolveUsername(claims),
+                resolveUserId(claims),
+                resolveRole(claims),
+                expirationDate != null ? expirationDate.toInstant() : null
+        );
+    }
+
     /**
      * Extrait un claim spécifique du token
      */
@@ -63,7 +93,10 @@ public class JwtUtil {
      * Le Service Utilisateurs peut utiliser 'sub', 'username', ou 'email'
      */
     public String extractUsername(String token) {
-        Claims claims = extractAllClaims(token);
+        return resolveUsername(extractAllClaims(token));
+    }
+
+    private String resolveUsername(Claims claims) {
         // Essayer d'abord le subject standard
         String username = claims.getSubject();
         if (username == null || username.isBlank()) {
@@ -91,8 +124,10 @@ public class JwtUtil {
      * Compatible avec différents formats: userId, user_id, id
      */
     public Long extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        
+        return resolveUserId(extractAllClaims(token));
+    }
+
+    private Long resolveUserId(Claims claims) {
         // Essayer différents noms de claims possibles
         Object userIdObj = claims.get("userId");
         if (userIdObj == null) {
@@ -122,8 +157,10 @@ public class JwtUtil {
      * Compatible avec: role, user_type, type (CLIENT, PRESTATAIRE, ADMIN)
      */
     public String extractRole(String token) {
-        Claims claims = extractAllClaims(token);
-        
+        return resolveRole(extractAllClaims(token));
+    }
+
+    private String resolveRole(Claims claims) {
         // Essayer différents noms de claims pour le rôle
         String role = (String) claims.get("role");
         if (role == null || role.isBlank()) {
@@ -163,8 +200,9 @@ public class JwtUtil {
      */
     public Boolean validateToken(String token) {
         try {
-            extractAllClaims(token); // Vérifie la signature
-            return !isTokenExpired(token);
+            // Le parseur vérifie la signature et rejette les tokens expirés
+            Date expirationDate = extractAllClaims(token).getExpiration();
+            return expirationDate == null || expirationDate.after(new Date());
         } catch (Exception e) {
             logger.error("Erreur de validation du token JWT: {}", e.getMessage());
             return false;
@@ -0,0 +1,46 @@
+package ma.tna.microservice3.util;
+
+import ma.tna.microservice3.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Curseur de pagination keyset sur le couple (dateCreation, id)
+ * Encodé en Base64 URL-safe pour rester opaque côté client
+ */
+public record KeysetCursor(LocalDateTime dateCreation, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Encode le curseur sous forme de jeton opaque
+     */
+    public String encode() {
+        String raw = dateCreation.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un jeton de continuation produit par {@link #encode()}
+     * @throws BadRequestException si le jeton est mal formé
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(SEPARATOR);
+            if (sep <= 0) {
+                throw new BadRequestException("Curseur de pagination invalide");
+            }
+            return new KeysetCursor(
+                    LocalDateTime.parse(raw.substring(0, sep)),
+                    Long.parseLong(raw.substring(sep + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Curseur de pagination invalide", e);
+        }
+    }
+}
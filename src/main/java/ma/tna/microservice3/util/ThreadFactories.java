@@ -0,0 +1,26 @@
+package ma.tna.microservice3.util;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Fabriques de threads pour les exécuteurs internes (pipeline des devis, dispatcher outbox)
+ * Suit le mode d'exécution de l'application (spring.threads.virtual.enabled)
+ */
+public final class ThreadFactories {
+
+    private ThreadFactories() {
+    }
+
+    /**
+     * Fabrique de threads nommés
+     * @param name Le nom des threads créés
+     * @param virtual true pour des threads virtuels, false pour des threads plateforme (daemon)
+     * @return La fabrique de threads
+     */
+    public static ThreadFactory named(String name, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(name).factory();
+        }
+        return Thread.ofPlatform().name(name).daemon(true).factory();
+    }
+}
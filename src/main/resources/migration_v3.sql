@@ -0,0 +1,27 @@
+-- ===============================================
+-- Migration Script v3 - Service Demandes Transport
+-- Changes:
+--   - Index composites pour la pagination keyset de /api/v1/demandes/search
+--   - Suppression des index simples devenus redondants (préfixes des index composites)
+-- ===============================================
+
+-- Run this on the PostgreSQL database (demandes_db)
+-- CONCURRENTLY évite de bloquer les écritures : ne pas exécuter dans une transaction
+
+-- 1. Index composites (filtre d'égalité, puis clé de parcours date_creation DESC, id DESC)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_demandes_keyset ON demandes(date_creation DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_demandes_client_keyset ON demandes(client_id, date_creation DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_demandes_statut_keyset ON demandes(statut_validation, date_creation DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_demandes_mission_keyset ON demandes(mission_id, date_creation DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_demandes_categorie_keyset ON demandes(categorie_id, date_creation DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_demandes_villes_keyset ON demandes(ville_depart, ville_destination, date_creation DESC, id DESC);
+
+-- 2. Index simples couverts par les index composites ci-dessus
+DROP INDEX CONCURRENTLY IF EXISTS idx_demandes_client_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_demandes_statut_validation;
+DROP INDEX CONCURRENTLY IF EXISTS idx_demandes_categorie_id;
+
+-- Verify the changes
+SELECT indexname, indexdef
+FROM pg_indexes
+WHERE tablename = 'demandes';
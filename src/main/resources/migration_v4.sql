@@ -0,0 +1,20 @@
+-- ===============================================
+-- Migration Script v4 - Service Demandes Transport
+-- Changes:
+--   - Colonne statut_devis : le devis est calculé en arrière-plan après la création de la demande
+--   - Index partiel sur les devis en attente (lecture des lots du calcul en arrière-plan)
+-- ===============================================
+
+-- Run this on the PostgreSQL database (demandes_db), BEFORE deploying the new version
+
+-- 1. Nouvelle colonne (les demandes existantes ayant un devis sont marquées CALCULE)
+ALTER TABLE demandes ADD COLUMN IF NOT EXISTS statut_devis VARCHAR(20) NOT NULL DEFAULT 'EN_ATTENTE';
+UPDATE demandes SET statut_devis = 'CALCULE' WHERE devis_estime IS NOT NULL AND statut_devis = 'EN_ATTENTE';
+
+-- 2. Index partiel : seules les demandes dont le devis reste à calculer y figurent
+CREATE INDEX IF NOT EXISTS idx_demandes_devis_en_attente ON demandes(id) WHERE statut_devis = 'EN_ATTENTE';
+
+-- Verify the changes
+SELECT statut_devis, COUNT(*)
+FROM demandes
+GROUP BY statut_devis;
@@ -0,0 +1,32 @@
+-- ===============================================
+-- Migration Script v5 - Service Demandes Transport
+-- Changes:
+--   - Table outbox_events : notifications du service Matching écrites dans la transaction
+--     de validation, puis livrées en arrière-plan (au moins une fois)
+-- ===============================================
+
+-- Run this on the PostgreSQL database (demandes_db), BEFORE deploying the new version
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    demande_id BIGINT,
+    payload TEXT NOT NULL,
+    statut VARCHAR(20) NOT NULL DEFAULT 'EN_ATTENTE',
+    tentatives INTEGER NOT NULL DEFAULT 0,
+    prochain_essai TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    derniere_erreur VARCHAR(500),
+    date_creation TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    date_envoi TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_a_livrer ON outbox_events(prochain_essai, id) WHERE statut = 'EN_ATTENTE';
+CREATE INDEX IF NOT EXISTS idx_outbox_envoyes ON outbox_events(date_envoi) WHERE statut = 'ENVOYE';
+
+-- Événements abandonnés (à surveiller, relivrables en remettant statut = 'EN_ATTENTE' et tentatives = 0)
+-- SELECT id, type, demande_id, tentatives, derniere_erreur FROM outbox_events WHERE statut = 'ECHEC';
+
+-- Verify the changes
+SELECT indexname, indexdef
+FROM pg_indexes
+WHERE tablename = 'outbox_events';
@@ -0,0 +1,27 @@
+-- ===============================================
+-- Migration Script v6 - Service Demandes Transport
+-- Changes:
+--   - Identifiant des demandes alloué par séquence (au lieu de IDENTITY) pour permettre
+--     les INSERT groupés (création par lots, hibernate.jdbc.batch_size)
+--   - Hibernate réserve les identifiants par blocs de 50 : la séquence doit avoir le même pas
+-- ===============================================
+
+-- Run this on the PostgreSQL database (demandes_db), BEFORE deploying the new version
+-- (au démarrage, Hibernate refuse une séquence dont le pas diffère de allocationSize)
+
+-- 1. Pas de la séquence créée par BIGSERIAL aligné sur allocationSize = 50
+ALTER SEQUENCE demandes_id_seq INCREMENT BY 50;
+
+-- 2. Repartir au-delà du plus grand identifiant existant
+SELECT setval('demandes_id_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM demandes), true);
+
+-- La valeur par défaut de la colonne (nextval('demandes_id_seq')) reste valable pour les insertions manuelles
+
+-- Optimiseur pooled-lo (hibernate.id.optimizer.pooled.preferred) : chaque nextval réserve le bloc
+-- [valeur, valeur + 49]. Le passage de pooled (bloc [valeur - 49, valeur]) à pooled-lo est sans risque ;
+-- l'inverse réutiliserait des identifiants : avancer la séquence de 50 avant de revenir à pooled.
+
+-- Verify the changes
+SELECT sequencename, increment_by, last_value
+FROM pg_sequences
+WHERE sequencename = 'demandes_id_seq';
@@ -0,0 +1,18 @@
+-- ===============================================
+-- Migration Script v7 - Service Demandes Transport
+-- Changes:
+--   - Colonne version : verrouillage optimiste des demandes (@Version)
+--     Les transitions de statut sont des UPDATE conditionnels (WHERE statut_validation = :attendu)
+--     qui incrémentent la version ; une sauvegarde concurrente d'une version périmée échoue (409)
+-- ===============================================
+
+-- Run this on the PostgreSQL database (demandes_db), BEFORE deploying the new version
+
+-- 1. Nouvelle colonne (les demandes existantes démarrent à la version 0)
+ALTER TABLE demandes ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- 2. Demandes dont le statut ne respecte plus les transitions autorisées : aucune correction automatique,
+--    à vérifier manuellement (TERMINEE et ANNULEE sont des statuts finaux)
+SELECT statut_validation, COUNT(*)
+FROM demandes
+GROUP BY statut_validation;
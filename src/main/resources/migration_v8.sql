@@ -0,0 +1,29 @@
+-- ===============================================
+-- Migration Script v8 - Service Demandes Transport
+-- Changes:
+--   - Extensions pg_trgm et unaccent, fonction IMMUTABLE f_unaccent (unaccent seule n'est pas indexable)
+--   - Index GIN de trigrammes sur lower(f_unaccent(nom)) : recherche et autocomplétion des catégories
+--     insensibles à la casse et aux accents, classées par similarité (remplace lower(nom) LIKE '%x%')
+-- ===============================================
+
+-- Run this on the PostgreSQL database (demandes_db), BEFORE deploying the new version
+-- CREATE EXTENSION nécessite un rôle propriétaire de la base (ou superutilisateur)
+-- Sans cette migration, l'application utilise son index en mémoire (categories.search.mode=auto)
+
+-- 1. Extensions
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- 2. Fonction IMMUTABLE (dictionnaire explicite) utilisable dans un index
+CREATE OR REPLACE FUNCTION f_unaccent(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$;
+
+-- 3. Index GIN de trigrammes : sert LIKE '%x%', LIKE 'x%' et l'opérateur de similarité %
+CREATE INDEX IF NOT EXISTS idx_categories_nom_trgm ON categories USING gin (lower(f_unaccent(nom)) gin_trgm_ops);
+
+-- Verify the changes
+SELECT nom, similarity(lower(f_unaccent(nom)), 'electro') AS score
+FROM categories
+WHERE lower(f_unaccent(nom)) % 'electro' OR lower(f_unaccent(nom)) LIKE '%electro%'
+ORDER BY score DESC;
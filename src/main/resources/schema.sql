@@ -30,9 +30,12 @@ CREATE TABLE IF NOT EXISTS categories (
     date_modification TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Séquence des demandes : Hibernate réserve les identifiants par blocs de 50 (allocationSize)
+CREATE SEQUENCE IF NOT EXISTS demandes_id_seq INCREMENT BY 50;
+
 -- Table demandes
 CREATE TABLE IF NOT EXISTS demandes (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY DEFAULT nextval('demandes_id_seq'),
     client_id BIGINT NOT NULL,
     volume DOUBLE PRECISION NOT NULL,
     poids DOUBLE PRECISION,
@@ -47,15 +50,44 @@ CREATE TABLE IF NOT EXISTS demandes (
     mission_id BIGINT,
     categorie_id VARCHAR(36) REFERENCES categories(id_categorie),
     devis_estime DECIMAL(10, 2),
+    statut_devis VARCHAR(20) NOT NULL DEFAULT 'EN_ATTENTE',
     date_creation TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    date_modification TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    date_modification TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Index pour améliorer les performances
-CREATE INDEX IF NOT EXISTS idx_demandes_client_id ON demandes(client_id);
-CREATE INDEX IF NOT EXISTS idx_demandes_statut_validation ON demandes(statut_validation);
 CREATE INDEX IF NOT EXISTS idx_demandes_date_depart ON demandes(date_depart);
-CREATE INDEX IF NOT EXISTS idx_demandes_categorie_id ON demandes(categorie_id);
+
+-- Index composites pour la pagination keyset (tri date_creation DESC, id DESC)
+-- Chaque filtre d'égalité de /api/v1/demandes/search est en tête d'index, suivi de la clé de parcours
+CREATE INDEX IF NOT EXISTS idx_demandes_keyset ON demandes(date_creation DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_demandes_client_keyset ON demandes(client_id, date_creation DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_demandes_statut_keyset ON demandes(statut_validation, date_creation DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_demandes_mission_keyset ON demandes(mission_id, date_creation DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_demandes_categorie_keyset ON demandes(categorie_id, date_creation DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_demandes_villes_keyset ON demandes(ville_depart, ville_destination, date_creation DESC, id DESC);
+
+-- Index partiel pour le calcul des devis en arrière-plan (seules les demandes EN_ATTENTE y figurent)
+CREATE INDEX IF NOT EXISTS idx_demandes_devis_en_attente ON demandes(id) WHERE statut_devis = 'EN_ATTENTE';
+
+-- Table outbox_events (événements livrés en arrière-plan aux autres microservices)
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    demande_id BIGINT,
+    payload TEXT NOT NULL,
+    statut VARCHAR(20) NOT NULL DEFAULT 'EN_ATTENTE',
+    tentatives INTEGER NOT NULL DEFAULT 0,
+    prochain_essai TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    derniere_erreur VARCHAR(500),
+    date_creation TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    date_envoi TIMESTAMP
+);
+
+-- Index partiel des événements à livrer (lecture des lots du dispatcher), index de purge des événements livrés
+CREATE INDEX IF NOT EXISTS idx_outbox_a_livrer ON outbox_events(prochain_essai, id) WHERE statut = 'EN_ATTENTE';
+CREATE INDEX IF NOT EXISTS idx_outbox_envoyes ON outbox_events(date_envoi) WHERE statut = 'ENVOYE';
 
 -- Index pour la table categories
 CREATE INDEX IF NOT EXISTS idx_categories_nom ON categories(nom);
@@ -63,6 +95,14 @@ CREATE INDEX IF NOT EXISTS idx_categories_fragile ON categories(fragile);
 CREATE INDEX IF NOT EXISTS idx_categories_dangereux ON categories(dangereux);
 CREATE INDEX IF NOT EXISTS idx_categories_temperature ON categories(temperature_requise);
 
+-- Recherche des catégories insensible à la casse et aux accents (pg_trgm + unaccent, voir migration_v8.sql)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE OR REPLACE FUNCTION f_unaccent(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$;
+CREATE INDEX IF NOT EXISTS idx_categories_nom_trgm ON categories USING gin (lower(f_unaccent(nom)) gin_trgm_ops);
+
 -- Données de test pour les catégories
 INSERT INTO categories (id_categorie, nom, description, densite_moyenne, fragile, dangereux, temperature_requise, restrictions)
 VALUES
@@ -0,0 +1,109 @@
+package ma.tna.microservice3.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Le disjoncteur et la cloison couvrent l'appel jusqu'à la fin du corps de la réponse, pas seulement les en-têtes
+ */
+class DownstreamResilienceFilterTest {
+
+    private static final int APPELS_SIMULTANES = 5;
+
+    private final Sinks.One<String> finDuCorps = Sinks.one();
+
+    private DisposableServer serveur;
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+    private WebClient webClient;
+
+    @BeforeEach
+    void demarrer() {
+        serveur = HttpServer.create().port(0)
+                .route(routes -> routes
+                        // En-têtes tout de suite, fin du corps quand le test le décide
+                        .get("/lent", (requete, reponse) -> reponse.sendString(
+                                Flux.concat(Mono.just("debut-"), finDuCorps.asMono())))
+                        // Corps annoncé mais jamais terminé : délai de lecture dépassé pendant le corps
+                        .get("/coupe", (requete, reponse) -> reponse.header("Content-Length", "100")
+                                .sendString(Flux.concat(Mono.just("debut-"), Mono.never()))))
+                .bindNow();
+
+        circuitBreaker = CircuitBreaker.of("test", CircuitBreakerConfig.custom()
+                .slowCallDurationThreshold(Duration.ofMillis(100))
+                .build());
+        bulkhead = Bulkhead.of("test", BulkheadConfig.custom().maxConcurrentCalls(APPELS_SIMULTANES).build());
+        HttpClient httpClient = HttpClient.create()
+                .doOnConnected(connexion -> connexion.addHandlerLast(new ReadTimeoutHandler(300, TimeUnit.MILLISECONDS)));
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + serveur.port())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(new DownstreamResilienceFilter(circuitBreaker, bulkhead, new SimpleMeterRegistry()))
+                .build();
+    }
+
+    @AfterEach
+    void arreter() {
+        serveur.disposeNow();
+    }
+
+    @Test
+    void corpsLent_placeTenueJusquALaFinDuCorps_appelLentCompte() throws Exception {
+        CompletableFuture<String> corps = webClient.get().uri("/lent").retrieve().bodyToMono(String.class).toFuture();
+
+        // En-têtes reçus, corps en cours : la place de la cloison est toujours prise
+        Thread.sleep(200);
+        assertThat(corps).isNotDone();
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(APPELS_SIMULTANES - 1);
+        assertThat(circuitBreaker.getMetrics().getNumberOfBufferedCalls()).isZero();
+
+        finDuCorps.tryEmitValue("fin");
+        assertThat(corps.get(5, TimeUnit.SECONDS)).isEqualTo("debut-fin");
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(APPELS_SIMULTANES);
+        assertThat(circuitBreaker.getMetrics().getNumberOfSuccessfulCalls()).isEqualTo(1);
+        // La durée comprend la lecture du corps
+        assertThat(circuitBreaker.getMetrics().getNumberOfSlowCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void delaiDepassePendantLeCorps_compteCommeEchec() {
+        assertThatThrownBy(() -> webClient.get().uri("/coupe").retrieve().bodyToMono(String.class).block())
+                .hasRootCauseInstanceOf(ReadTimeoutException.class);
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(APPELS_SIMULTANES);
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void abandonParLAppelant_placeRendueSansComptage() {
+        assertThatThrownBy(() -> webClient.get().uri("/lent").retrieve().bodyToMono(String.class)
+                .timeout(Duration.ofMillis(100)).block());
+
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(APPELS_SIMULTANES);
+        assertThat(circuitBreaker.getMetrics().getNumberOfBufferedCalls()).isZero();
+    }
+}
@@ -0,0 +1,421 @@
+package ma.tna.microservice3.controller;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import ma.tna.microservice3.model.Categorie;
+import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.model.StatutDevis;
+import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.repository.CategorieRepository;
+import ma.tna.microservice3.repository.DemandeRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Suite d'intégration des lectures (demandes et catégories), exécutée par HTTP contre chaque pile :
+ * Spring MVC + JPA (LecturesServletIntegrationTest) et WebFlux + R2DBC (LecturesReactiveIntegrationTest).
+ * Les deux piles doivent renvoyer les mêmes statuts, en-têtes et corps ; le Service Utilisateurs est simulé
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class AbstractLecturesIntegrationTest {
+
+    private static final long CLIENT_ID = 1L;
+    private static final long PRESTATAIRE_ID = 2L;
+    private static final long ADMIN_ID = 3L;
+    private static final long AUTRE_CLIENT_ID = 4L;
+    private static final long MISSION_ID = 7L;
+
+    private static final HttpServer UTILISATEURS = demarrerUtilisateurs();
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private DemandeRepository demandeRepository;
+
+    @Autowired
+    private CategorieRepository categorieRepository;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    /**
+     * Demandes par date de création décroissante (ordre des listings)
+     */
+    private final List<Demande> demandes = new ArrayList<>();
+    private Categorie electromenager;
+
+    @DynamicPropertySource
+    static void serviceUtilisateurs(DynamicPropertyRegistry registry) {
+        registry.add("service.url.utilisateurs",
+                () -> "http://127.0.0.1:" + UTILISATEURS.getAddress().getPort() + "/account");
+    }
+
+    @BeforeAll
+    void creerDonnees() {
+        client = client.mutate().responseTimeout(Duration.ofSeconds(30)).build();
+
+        electromenager = categorieRepository.save(Categorie.builder()
+                .nom("Électroménager").densiteMoyenne(150.0).fragile(true).build());
+        Categorie chimie = categorieRepository.save(Categorie.builder()
+                .nom("Produits chimiques").densiteMoyenne(900.0).dangereux(true).build());
+        categorieRepository.save(Categorie.builder()
+                .nom("Surgelés").densiteMoyenne(500.0).temperatureRequise("congele").build());
+
+        LocalDateTime debut = LocalDateTime.of(2026, 3, 1, 8, 0);
+        List<Demande> creees = demandeRepository.saveAll(List.of(
+                demande(CLIENT_ID, StatutValidation.EN_ATTENTE_CLIENT, null, electromenager, debut),
+                demande(CLIENT_ID, StatutValidation.VALIDEE_CLIENT, MISSION_ID, chimie, debut.plusHours(1)),
+                demande(AUTRE_CLIENT_ID, StatutValidation.EN_ATTENTE_CLIENT, null, null, debut.plusHours(2)),
+                demande(AUTRE_CLIENT_ID, StatutValidation.VALIDEE_CLIENT, MISSION_ID, electromenager, debut.plusHours(3)),
+                demande(CLIENT_ID, StatutValidation.EN_ATTENTE_CLIENT, null, chimie, debut.plusHours(4))
+        ));
+        demandes.addAll(creees.reversed());
+    }
+
+    @AfterAll
+    void supprimerDonnees() {
+        demandeRepository.deleteAllInBatch();
+        categorieRepository.deleteAllInBatch();
+    }
+
+    // --- Demandes ---
+
+    @Test
+    void mesDemandes_duClientSeulement_plusRecentesDAbord() {
+        get("/api/v1/demandes", "CLIENT", CLIENT_ID).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[*].id").isEqualTo(ids(CLIENT_ID))
+                .jsonPath("$[0].clientId").isEqualTo(CLIENT_ID)
+                .jsonPath("$[0].statutValidation").isEqualTo("EN_ATTENTE_CLIENT")
+                .jsonPath("$[0].statutDevis").isEqualTo("CALCULE")
+                .jsonPath("$[0].devisEstime").isEqualTo(100.0)
+                .jsonPath("$[0].dateCreation").isEqualTo("2026-03-01T12:00:00")
+                .jsonPath("$[0].categorie.nom").isEqualTo("Produits chimiques")
+                .jsonPath("$[0].categorie.dangereux").isEqualTo(true);
+    }
+
+    @Test
+    void requeteAnonyme_refusee() {
+        client.get().uri("/api/v1/demandes").exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void demandeParId_etagPuis304() {
+        Demande demande = demandes.get(0);
+        EntityExchangeResult<byte[]> lue = get("/api/v1/demandes/" + demande.getId(), "CLIENT", CLIENT_ID).exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(demande.getId())
+                .jsonPath("$.version").isEqualTo(demande.getVersion())
+                .jsonPath("$.categorie.nom").isEqualTo("Produits chimiques")
+                .returnResult();
+
+        String etag = lue.getResponseHeaders().getETag();
+        get("/api/v1/demandes/" + demande.getId(), "CLIENT", CLIENT_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void demandeParId_reglesDAcces() {
+        Demande enAttenteAutreClient = demandes.get(2);
+        Demande valideeAutreClient = demandes.get(1);
+
+        get("/api/v1/demandes/" + enAttenteAutreClient.getId(), "CLIENT", CLIENT_ID).exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody().jsonPath("$.message").isEqualTo("Vous n'êtes pas autorisé à consulter cette demande");
+        get("/api/v1/demandes/" + enAttenteAutreClient.getId(), "PRESTATAIRE", PRESTATAIRE_ID).exchange()
+                .expectStatus().isUnauthorized();
+        get("/api/v1/demandes/" + valideeAutreClient.getId(), "PRESTATAIRE", PRESTATAIRE_ID).exchange()
+                .expectStatus().isOk();
+        get("/api/v1/demandes/" + enAttenteAutreClient.getId(), "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.categorie").isEmpty();
+        get("/api/v1/demandes/999999", "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Demande non trouvée avec l'ID: 999999");
+    }
+
+    @Test
+    void listingsAdminEtPrestataire() {
+        get("/api/v1/demandes/admin/all", "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[*].id").isEqualTo(ids(null));
+        get("/api/v1/demandes/admin/all", "CLIENT", CLIENT_ID).exchange()
+                .expectStatus().isForbidden();
+
+        get("/api/v1/demandes/admin/statut/validee_client", "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[*].id").isEqualTo(idsAuxPositions(1, 3));
+
+        get("/api/v1/demandes/mission/" + MISSION_ID, "PRESTATAIRE", PRESTATAIRE_ID).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[*].id").isEqualTo(idsAuxPositions(1, 3));
+        get("/api/v1/demandes/mission/" + MISSION_ID, "CLIENT", CLIENT_ID).exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void recherche_paginationParCurseur() {
+        List<Object> lus = new ArrayList<>();
+        String curseur = null;
+        int pages = 0;
+        do {
+            String uri = "/api/v1/demandes/search?size=2" + (curseur != null ? "&cursor=" + curseur : "");
+            Map<?, ?> page = get(uri, "ADMIN", ADMIN_ID).exchange()
+                    .expectStatus().isOk()
+                    .expectBody(Map.class).returnResult().getResponseBody();
+            lus.addAll(((List<?>) page.get("content")).stream().map(demande -> ((Map<?, ?>) demande).get("id")).toList());
+            curseur = (String) page.get("nextCursor");
+            assertThat(page.get("hasNext")).isEqualTo(curseur != null);
+            pages++;
+        } while (curseur != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(lus).isEqualTo(ids(null));
+    }
+
+    @Test
+    void recherche_restrictionsParRole() {
+        // Un CLIENT ne voit que ses demandes, quel que soit le clientId demandé
+        get("/api/v1/demandes/search?clientId=" + AUTRE_CLIENT_ID, "CLIENT", CLIENT_ID).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.content[*].id").isEqualTo(ids(CLIENT_ID));
+        // Un PRESTATAIRE ne voit pas les demandes en attente du client
+        get("/api/v1/demandes/search", "PRESTATAIRE", PRESTATAIRE_ID).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.content[*].id").isEqualTo(idsAuxPositions(1, 3));
+        get("/api/v1/demandes/search?categorieId=" + electromenager.getIdCategorie() + "&creeAvant=2026-03-01T10:00:00",
+                "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.content[*].id").isEqualTo(idsAuxPositions(4));
+
+        get("/api/v1/demandes/search?size=0", "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isBadRequest();
+        get("/api/v1/demandes/search?statut=INCONNU", "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isBadRequest();
+        get("/api/v1/demandes/search?cursor=invalide", "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void export_ndjsonEtCsv() {
+        String ndjson = get("/api/v1/demandes/admin/export", "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"demandes.ndjson\"")
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertThat(ndjson.lines()).hasSize(demandes.size());
+        assertThat(ndjson.lines().findFirst().orElseThrow()).startsWith("{\"id\":" + demandes.get(4).getId() + ",");
+
+        String csv = get("/api/v1/demandes/admin/export?format=csv", "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.parseMediaType("text/csv"))
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertThat(csv.lines()).hasSize(demandes.size() + 1);
+        assertThat(csv.lines().findFirst().orElseThrow()).startsWith("id,clientId,volume,");
+        assertThat(csv).contains("," + electromenager.getIdCategorie() + ",Électroménager,");
+
+        get("/api/v1/demandes/admin/export?format=xml", "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isBadRequest();
+        get("/api/v1/demandes/admin/export", "PRESTATAIRE", PRESTATAIRE_ID).exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void infosClient() {
+        get("/api/v1/demandes/" + demandes.get(0).getId() + "/client", "CLIENT", CLIENT_ID).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(CLIENT_ID)
+                .jsonPath("$.email").isEqualTo("client" + CLIENT_ID + "@tna.ma");
+        get("/api/v1/demandes/" + demandes.get(1).getId() + "/client", "CLIENT", CLIENT_ID).exchange()
+                .expectStatus().isUnauthorized();
+        get("/api/v1/demandes/999999/client", "ADMIN", ADMIN_ID).exchange()
+                .expectStatus().isNotFound();
+
+        get("/api/v1/demandes/mission/" + MISSION_ID + "/clients", "PRESTATAIRE", PRESTATAIRE_ID).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.missionId").isEqualTo(MISSION_ID)
+                .jsonPath("$.totalDemandes").isEqualTo(2)
+                .jsonPath("$.clients[*].clientId").isEqualTo(List.of((int) CLIENT_ID, (int) AUTRE_CLIENT_ID))
+                .jsonPath("$.clients[0].demandeIds[0]").isEqualTo(demandes.get(3).getId())
+                .jsonPath("$.clients[1].client.email").isEqualTo("client" + AUTRE_CLIENT_ID + "@tna.ma");
+    }
+
+    // --- Catégories ---
+
+    @Test
+    void categories_liste_etagEtGzip() {
+        // Le client HTTP de test annonce gzip par défaut : la variante brute est demandée explicitement
+        EntityExchangeResult<byte[]> liste = client.get().uri("/api/v1/categories")
+                .header(HttpHeaders.ACCEPT_ENCODING, "identity").exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.LAST_MODIFIED)
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=300, public, stale-while-revalidate=60")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[?(@.nom == 'Surgelés')].temperatureRequise").isEqualTo("congele")
+                .returnResult();
+
+        String etag = liste.getResponseHeaders().getETag();
+        assertThat(etag).isNotNull().doesNotEndWith("-gzip\"");
+        client.get().uri("/api/v1/categories").header(HttpHeaders.ACCEPT_ENCODING, "identity")
+                .header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified();
+        client.get().uri("/api/v1/categories/search?keyword=chimique").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified();
+
+        // La réponse est décompressée par le client de test : la variante gzip se reconnaît à son ETag
+        client.get().uri("/api/v1/categories").header(HttpHeaders.ACCEPT_ENCODING, "gzip").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag.substring(0, etag.length() - 1) + "-gzip\"")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .expectBody().jsonPath("$.length()").isEqualTo(3);
+    }
+
+    @Test
+    void categories_lectures() {
+        client.get().uri("/api/v1/categories/" + electromenager.getIdCategorie()).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.nom").isEqualTo("Électroménager");
+        client.get().uri("/api/v1/categories/inconnue").exchange()
+                .expectStatus().isNotFound();
+        client.get().uri("/api/v1/categories/nom/Surgelés").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.temperatureRequise").isEqualTo("congele");
+        client.get().uri("/api/v1/categories/filter/fragile?fragile=true").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[*].nom").isEqualTo(List.of("Électroménager"));
+        client.get().uri("/api/v1/categories/filter/dangereux?dangereux=true").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[*].nom").isEqualTo(List.of("Produits chimiques"));
+        client.get().uri("/api/v1/categories/search?keyword=chimique").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].nom").isEqualTo("Produits chimiques");
+        client.get().uri("/api/v1/categories/autocomplete?prefix=electro").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].idCategorie").isEqualTo(electromenager.getIdCategorie())
+                .jsonPath("$[0].nom").isEqualTo("Électroménager");
+    }
+
+    private WebTestClient.RequestHeadersSpec<?> get(String uri, String role, long userId) {
+        return client.get().uri(uri).header(HttpHeaders.AUTHORIZATION, "Bearer " + token(userId, role));
+    }
+
+    /**
+     * IDs attendus d'un listing (plus récentes d'abord), pour un client ou pour tous (null)
+     */
+    private List<Integer> ids(Long clientId) {
+        return demandes.stream()
+                .filter(demande -> clientId == null || demande.getClientId().equals(clientId))
+                .map(demande -> demande.getId().intValue())
+                .toList();
+    }
+
+    /**
+     * IDs des demandes aux positions données du listing complet
+     */
+    private List<Integer> idsAuxPositions(int... positions) {
+        return Arrays.stream(positions).mapToObj(position -> demandes.get(position).getId().intValue()).toList();
+    }
+
+    /**
+     * Token au format du Service Utilisateurs (voir JwtTokenGenerator)
+     */
+    private String token(long userId, String role) {
+        return Jwts.builder()
+                .claims(Map.of("userId", userId, "role", role))
+                .subject("user" + userId + "@tna.ma")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static Demande demande(long clientId, StatutValidation statut, Long missionId, Categorie categorie,
+                                   LocalDateTime dateCreation) {
+        return Demande.builder()
+                .clientId(clientId)
+                .volume(2.5)
+                .poids(300.0)
+                .natureMarchandise("Marchandise, fragile")
+                .dateDepart(dateCreation.plusDays(10))
+                .villeDepart("Casablanca")
+                .villeDestination("Rabat")
+                .statutValidation(statut)
+                .missionId(missionId)
+                .categorie(categorie)
+                // Devis déjà calculé : le pipeline de devis n'a rien à traiter
+                .devisEstime(BigDecimal.valueOf(100))
+                .statutDevis(StatutDevis.CALCULE)
+                .dateCreation(dateCreation)
+                .dateModification(dateCreation)
+                .build();
+    }
+
+    /**
+     * Service Utilisateurs simulé : GET /account/users/{id}/
+     */
+    private static HttpServer demarrerUtilisateurs() {
+        try {
+            HttpServer serveur = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            serveur.createContext("/account/users/", echange -> {
+                String[] segments = echange.getRequestURI().getPath().split("/");
+                String id = segments[segments.length - 1];
+                byte[] corps = ("{\"id\":" + id + ",\"email\":\"client" + id + "@tna.ma\",\"nom\":\"Nom\","
+                        + "\"prenom\":\"Prénom\",\"telephone\":\"0600000000\",\"userType\":\"CLIENT\"}")
+                        .getBytes(StandardCharsets.UTF_8);
+                echange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+                echange.sendResponseHeaders(HttpStatus.OK.value(), corps.length);
+                try (OutputStream out = echange.getResponseBody()) {
+                    out.write(corps);
+                }
+            });
+            serveur.start();
+            return serveur;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
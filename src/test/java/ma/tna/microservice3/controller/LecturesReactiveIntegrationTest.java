@@ -0,0 +1,11 @@
+package ma.tna.microservice3.controller;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Suite des lectures contre le profil "reactive" : WebFlux (Netty) + R2DBC
+ * ("test" en dernier : ses propriétés, dont l'URL R2DBC vers la base H2, l'emportent)
+ */
+@ActiveProfiles({"reactive", "test"})
+class LecturesReactiveIntegrationTest extends AbstractLecturesIntegrationTest {
+}
@@ -0,0 +1,10 @@
+package ma.tna.microservice3.controller;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Suite des lectures contre la pile par défaut : Spring MVC (Tomcat) + JPA
+ */
+@ActiveProfiles("test")
+class LecturesServletIntegrationTest extends AbstractLecturesIntegrationTest {
+}
@@ -0,0 +1,243 @@
+package ma.tna.microservice3.service;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.model.StatutDevis;
+import ma.tna.microservice3.repository.DemandeRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insertion de 10 000 demandes en 20 lots de 500 (taille maximale de POST /bulk) : séquence pooled-lo avec
+ * hibernate.jdbc.batch_size=50 (Demande) comparée à une clé IDENTITY (mêmes colonnes, un INSERT par ligne)
+ * Les instructions JDBC sont comptées par les statistiques Hibernate, les exécutions par lot par un
+ * SessionEventListener ; les durées (H2 en mémoire, sans aller-retour réseau) ne sont que journalisées
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DemandeInsertBatchTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DemandeInsertBatchTest.class);
+
+    private static final int NB_DEMANDES = 10_000;
+    private static final int TAILLE_LOT = 500;
+    private static final int BATCH_SIZE = 50;
+    private static final int CHAUFFE = 2_000;
+
+    @Autowired
+    private DemandeRepository demandeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+
+    @BeforeAll
+    void initialiser() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void supprimerDemandes() {
+        demandeRepository.deleteAllInBatch();
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("DELETE FROM DemandeIdentite").executeUpdate());
+    }
+
+    @Test
+    void sequencePooledLo_insertsGroupesParLotsDe50() {
+        Mesure mesure = inserer(DemandeInsertBatchTest::demande);
+
+        // Un appel à la séquence et un lot de 50 INSERT toutes les 50 demandes ;
+        // l'INSERT n'est préparé qu'une fois par transaction et réutilisé d'un lot à l'autre
+        assertThat(mesure.insertions()).isEqualTo(NB_DEMANDES);
+        assertThat(mesure.lots()).isEqualTo(NB_DEMANDES / BATCH_SIZE);
+        assertThat(mesure.instructions()).isEqualTo(NB_DEMANDES / BATCH_SIZE + NB_DEMANDES / TAILLE_LOT);
+    }
+
+    @Test
+    void identity_unInsertParDemande() {
+        Mesure mesure = inserer(DemandeInsertBatchTest::demandeIdentite);
+
+        // La clé n'est connue qu'après l'INSERT : Hibernate l'exécute aussitôt, sans lot possible
+        assertThat(mesure.insertions()).isEqualTo(NB_DEMANDES);
+        assertThat(mesure.lots()).isZero();
+        assertThat(mesure.instructions()).isEqualTo(NB_DEMANDES);
+    }
+
+    /**
+     * Insère CHAUFFE demandes (non mesurées) puis NB_DEMANDES, par transactions de TAILLE_LOT
+     */
+    private Mesure inserer(IntFunction<Object> demande) {
+        insererLots(CHAUFFE, demande, new CompteurJdbc());
+
+        CompteurJdbc compteur = new CompteurJdbc();
+        statistics.clear();
+        long debut = System.nanoTime();
+        insererLots(NB_DEMANDES, demande, compteur);
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+
+        Mesure mesure = new Mesure(statistics.getEntityInsertCount(), statistics.getPrepareStatementCount(),
+                compteur.lots);
+        logger.info("{} demandes ({}) en {} ms : {} instructions JDBC, {} lots", NB_DEMANDES,
+                demande.apply(0).getClass().getSimpleName(), dureeMs, mesure.instructions(), mesure.lots());
+        return mesure;
+    }
+
+    private void insererLots(int nombre, IntFunction<Object> demande, CompteurJdbc compteur) {
+        for (int debut = 0; debut < nombre; debut += TAILLE_LOT) {
+            int premier = debut;
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).addEventListeners(compteur);
+                for (int i = premier; i < premier + TAILLE_LOT; i++) {
+                    entityManager.persist(demande.apply(i));
+                }
+            });
+        }
+    }
+
+    private static Demande demande(int i) {
+        LocalDateTime date = LocalDateTime.of(2026, 1, 1, 8, 0);
+        return Demande.builder()
+                .clientId(42L)
+                .volume(1.0 + i % 10)
+                .poids(100.0 + i % 50)
+                .natureMarchandise("Marchandise " + i)
+                .dateDepart(date.plusDays(30))
+                .villeDepart("Casablanca")
+                .villeDestination("Rabat")
+                .devisEstime(BigDecimal.valueOf(100))
+                .statutDevis(StatutDevis.CALCULE)
+                .dateCreation(date)
+                .dateModification(date)
+                .build();
+    }
+
+    private static DemandeIdentite demandeIdentite(int i) {
+        Demande source = demande(i);
+        DemandeIdentite demande = new DemandeIdentite();
+        demande.clientId = source.getClientId();
+        demande.volume = source.getVolume();
+        demande.poids = source.getPoids();
+        demande.natureMarchandise = source.getNatureMarchandise();
+        demande.dateDepart = source.getDateDepart();
+        demande.villeDepart = source.getVilleDepart();
+        demande.villeDestination = source.getVilleDestination();
+        demande.statutValidation = source.getStatutValidation().name();
+        demande.devisEstime = source.getDevisEstime();
+        demande.statutDevis = source.getStatutDevis().name();
+        demande.dateCreation = source.getDateCreation();
+        demande.dateModification = source.getDateModification();
+        return demande;
+    }
+
+    /**
+     * Mêmes colonnes qu'une demande, clé IDENTITY (mapping de Demande avant la séquence demandes_id_seq)
+     */
+    @Entity(name = "DemandeIdentite")
+    @Table(name = "demandes_identite_test")
+    static class DemandeIdentite {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+
+        @Column(nullable = false)
+        Long clientId;
+
+        @Column(nullable = false)
+        Double volume;
+
+        Double poids;
+
+        @Column(nullable = false)
+        String natureMarchandise;
+
+        @Column(nullable = false)
+        LocalDateTime dateDepart;
+
+        @Column(nullable = false, length = 100)
+        String villeDepart;
+
+        @Column(nullable = false, length = 100)
+        String villeDestination;
+
+        @Column(nullable = false, length = 50)
+        String statutValidation;
+
+        @Column(length = 100)
+        String itineraireAssocieId;
+
+        Long missionId;
+
+        @Column(name = "categorie_id")
+        String categorieId;
+
+        @Column(precision = 10, scale = 2)
+        BigDecimal devisEstime;
+
+        @Column(nullable = false, length = 20)
+        String statutDevis;
+
+        @Column(nullable = false)
+        LocalDateTime dateCreation;
+
+        @Column(nullable = false)
+        LocalDateTime dateModification;
+
+        @Version
+        Long version;
+    }
+
+    /**
+     * Exécutions par lot (executeBatch) des sessions observées
+     */
+    private static final class CompteurJdbc implements SessionEventListener {
+
+        private long lots;
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            lots++;
+        }
+    }
+
+    private record Mesure(long insertions, long instructions, long lots) {
+    }
+}
@@ -0,0 +1,160 @@
+package ma.tna.microservice3.service;
+
+import jakarta.persistence.EntityManager;
+import ma.tna.microservice3.dto.DemandeResponseDTO;
+import ma.tna.microservice3.mapper.DemandeMapper;
+import ma.tna.microservice3.model.Categorie;
+import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.model.StatutDevis;
+import ma.tna.microservice3.repository.CategorieRepository;
+import ma.tna.microservice3.repository.DemandeRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Octets alloués par un listing de 1 000 demandes : projections DemandeView (findViewsByClientId, findAllViews)
+ * comparées au chemin par entités qu'elles remplacent (entités gérées, catégorie chargée à la demande)
+ * Mesuré par ThreadMXBean.getThreadAllocatedBytes sur le thread du test : requête, hydratation et mapping
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DemandeListingAllocationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DemandeListingAllocationTest.class);
+
+    private static final int NB_DEMANDES = 1_000;
+    private static final int NB_CATEGORIES = 20;
+    private static final long CLIENT_ID = 42L;
+    private static final int CHAUFFE = 10;
+    private static final int MESURES = 5;
+    /** Budget par demande d'un listing par projections (1,6 Ko mesuré sur JDK 21) */
+    private static final long BUDGET_OCTETS_PAR_DEMANDE = 2_048;
+
+    @Autowired
+    private DemandeService demandeService;
+
+    @Autowired
+    private DemandeRepository demandeRepository;
+
+    @Autowired
+    private CategorieRepository categorieRepository;
+
+    @Autowired
+    private DemandeMapper demandeMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate lectureSeule;
+
+    @BeforeAll
+    void creerDemandes() {
+        List<Categorie> categories = categorieRepository.saveAll(IntStream.range(0, NB_CATEGORIES)
+                .mapToObj(i -> Categorie.builder().nom("Catégorie " + i).densiteMoyenne(100.0 + i).build())
+                .toList());
+
+        LocalDateTime debut = LocalDateTime.of(2026, 1, 1, 8, 0);
+        List<Demande> demandes = new ArrayList<>(NB_DEMANDES);
+        for (int i = 0; i < NB_DEMANDES; i++) {
+            demandes.add(Demande.builder()
+                    .clientId(CLIENT_ID)
+                    .volume(1.0 + i % 10)
+                    .natureMarchandise("Marchandise " + i)
+                    .dateDepart(debut.plusDays(30))
+                    .villeDepart("Casablanca")
+                    .villeDestination("Rabat")
+                    .categorie(categories.get(i % NB_CATEGORIES))
+                    .devisEstime(BigDecimal.valueOf(100))
+                    .statutDevis(StatutDevis.CALCULE)
+                    .dateCreation(debut.plusMinutes(i))
+                    .dateModification(debut.plusMinutes(i))
+                    .build());
+        }
+        demandeRepository.saveAll(demandes);
+
+        lectureSeule = new TransactionTemplate(transactionManager);
+        lectureSeule.setReadOnly(true);
+    }
+
+    @AfterAll
+    void supprimerDemandes() {
+        demandeRepository.deleteAllInBatch();
+        categorieRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void demandesDuClient_projectionAlloueMoinsQueLesEntites() {
+        // Chemin d'avant les projections : findByClientId dans une transaction en lecture seule, puis mapping
+        long entites = octetsParListing(() -> lectureSeule.execute(status -> entityManager
+                .createQuery("SELECT d FROM Demande d WHERE d.clientId = :clientId "
+                        + "ORDER BY d.dateCreation DESC, d.id DESC", Demande.class)
+                .setParameter("clientId", CLIENT_ID)
+                .getResultStream()
+                .map(demandeMapper::toResponseDTO)
+                .toList()));
+        long vues = octetsParListing(() -> demandeService.getDemandesByClient(CLIENT_ID));
+
+        logger.info("Listing client de {} demandes : entités {} o/demande, vues {} o/demande",
+                NB_DEMANDES, entites / NB_DEMANDES, vues / NB_DEMANDES);
+        assertThat(vues).isLessThan(entites * 9 / 10);
+        assertThat(vues / NB_DEMANDES).isLessThanOrEqualTo(BUDGET_OCTETS_PAR_DEMANDE);
+    }
+
+    @Test
+    void toutesLesDemandes_projectionAlloueMoinsQueLesEntites() {
+        long entites = octetsParListing(() -> lectureSeule.execute(status -> entityManager
+                .createQuery("SELECT d FROM Demande d ORDER BY d.dateCreation DESC, d.id DESC", Demande.class)
+                .getResultStream()
+                .map(demandeMapper::toResponseDTO)
+                .toList()));
+        long vues = octetsParListing(() -> demandeService.getAllDemandes());
+
+        logger.info("Listing admin de {} demandes : entités {} o/demande, vues {} o/demande",
+                NB_DEMANDES, entites / NB_DEMANDES, vues / NB_DEMANDES);
+        assertThat(vues).isLessThan(entites * 9 / 10);
+        assertThat(vues / NB_DEMANDES).isLessThanOrEqualTo(BUDGET_OCTETS_PAR_DEMANDE);
+    }
+
+    /**
+     * Plus petite allocation observée sur le thread courant pour un listing complet, après chauffe
+     * (plans de requête, JIT) ; le minimum écarte les allocations ponctuelles étrangères au listing
+     */
+    private long octetsParListing(Supplier<List<DemandeResponseDTO>> listing) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < CHAUFFE; i++) {
+            assertThat(listing.get()).hasSize(NB_DEMANDES);
+        }
+        long minimum = Long.MAX_VALUE;
+        for (int i = 0; i < MESURES; i++) {
+            long avant = threads.getThreadAllocatedBytes(threadId);
+            List<DemandeResponseDTO> demandes = listing.get();
+            minimum = Math.min(minimum, threads.getThreadAllocatedBytes(threadId) - avant);
+            assertThat(demandes).hasSize(NB_DEMANDES);
+        }
+        return minimum;
+    }
+}
@@ -0,0 +1,169 @@
+package ma.tna.microservice3.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import ma.tna.microservice3.dto.DemandePageDTO;
+import ma.tna.microservice3.dto.DemandeResponseDTO;
+import ma.tna.microservice3.dto.DemandeSearchCriteria;
+import ma.tna.microservice3.model.Categorie;
+import ma.tna.microservice3.model.Demande;
+import ma.tna.microservice3.model.StatutDevis;
+import ma.tna.microservice3.model.StatutValidation;
+import ma.tna.microservice3.repository.CategorieRepository;
+import ma.tna.microservice3.repository.DemandeRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Non-régression du N+1 sur la catégorie : le nombre de requêtes SQL d'un listing de 1 000 demandes
+ * (réparties sur 20 catégories) ne dépend pas du nombre de lignes
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DemandeListingQueryCountTest {
+
+    private static final int NB_DEMANDES = 1_000;
+    private static final int NB_CATEGORIES = 20;
+    private static final long CLIENT_ID = 42L;
+    private static final long MISSION_ID = 7L;
+
+    @Autowired
+    private DemandeService demandeService;
+
+    @Autowired
+    private DemandeExportService demandeExportService;
+
+    @Autowired
+    private DemandeRepository demandeRepository;
+
+    @Autowired
+    private CategorieRepository categorieRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    void creerDemandes() {
+        List<Categorie> categories = categorieRepository.saveAll(IntStream.range(0, NB_CATEGORIES)
+                .mapToObj(i -> Categorie.builder().nom("Catégorie " + i).densiteMoyenne(100.0 + i).build())
+                .toList());
+
+        LocalDateTime debut = LocalDateTime.of(2026, 1, 1, 8, 0);
+        List<Demande> demandes = new ArrayList<>(NB_DEMANDES);
+        for (int i = 0; i < NB_DEMANDES; i++) {
+            demandes.add(Demande.builder()
+                    .clientId(CLIENT_ID)
+                    .missionId(MISSION_ID)
+                    .volume(1.0 + i % 10)
+                    .natureMarchandise("Marchandise " + i)
+                    .dateDepart(debut.plusDays(30))
+                    .villeDepart("Casablanca")
+                    .villeDestination("Rabat")
+                    .categorie(categories.get(i % NB_CATEGORIES))
+                    // Devis déjà calculé : le pipeline de devis n'a rien à traiter
+                    .devisEstime(BigDecimal.valueOf(100))
+                    .statutDevis(StatutDevis.CALCULE)
+                    .dateCreation(debut.plusMinutes(i))
+                    .dateModification(debut.plusMinutes(i))
+                    .build());
+        }
+        demandeRepository.saveAll(demandes);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterAll
+    void supprimerDemandes() {
+        demandeRepository.deleteAllInBatch();
+        categorieRepository.deleteAllInBatch();
+    }
+
+    @BeforeEach
+    void reinitialiserStatistiques() {
+        statistics.clear();
+    }
+
+    @Test
+    void demandesDuClient_uneSeuleRequete() {
+        List<DemandeResponseDTO> demandes = demandeService.getDemandesByClient(CLIENT_ID);
+
+        assertThat(demandes).hasSize(NB_DEMANDES);
+        assertThat(demandes).allSatisfy(demande -> assertThat(demande.categorie()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void toutesLesDemandes_uneSeuleRequete() {
+        List<DemandeResponseDTO> demandes = demandeService.getAllDemandes();
+
+        assertThat(demandes).hasSize(NB_DEMANDES);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void demandesParStatut_uneSeuleRequete() {
+        List<DemandeResponseDTO> demandes = demandeService.getDemandesByStatut(StatutValidation.EN_ATTENTE_CLIENT.name());
+
+        assertThat(demandes).hasSize(NB_DEMANDES);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void demandesDeLaMission_uneSeuleRequete() {
+        List<DemandeResponseDTO> demandes = demandeService.getDemandesByMission(MISSION_ID);
+
+        assertThat(demandes).hasSize(NB_DEMANDES);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rechercheParCurseur_uneRequeteParPage() {
+        DemandeSearchCriteria criteres = new DemandeSearchCriteria(null, null, null, null, null, null, null, null);
+        int lues = 0;
+        int pages = 0;
+        String curseur = null;
+        do {
+            DemandePageDTO page = demandeService.rechercherDemandes(criteres, curseur, 100, 1L, "ADMIN");
+            assertThat(page.content()).allSatisfy(demande -> assertThat(demande.categorie()).isNotNull());
+            lues += page.size();
+            pages++;
+            curseur = page.nextCursor();
+        } while (curseur != null);
+
+        assertThat(lues).isEqualTo(NB_DEMANDES);
+        // Les entités sont mappées avec leur catégorie : une requête par page, pas une par demande
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(pages);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+
+    @Test
+    void export_uneSeuleRequete() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        demandeExportService.exporter(DemandeExportService.Format.NDJSON, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(NB_DEMANDES);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+}